@@ -0,0 +1,456 @@
+/*
+ * Benchmarks da Bolsa de Valores
+ *
+ * Programa de medição executado em um único processo, sem dependências externas.
+ *
+ * Cenários:
+ *   java -cp bin app.BenchmarkBolsa gateway [iteracoes]
+ *     Compara a latência de ida e volta de enviarOrdem via RMI e via gateway binário NIO.
+ *   java -cp bin app.BenchmarkBolsa ipc [iteracoes]
+ *     Latência de ida e volta de uma ordem pelo transporte IPC de memória compartilhada.
+ *   java -cp bin app.BenchmarkBolsa risco [iteracoes]
+ *     Custo por ordem das verificações de risco pré-negociação (aceitar + execução).
+ *   java -cp bin app.BenchmarkBolsa ciclo [iteracoes]
+ *     Tempo e bytes alocados por operação no ciclo de vida da ordem no book
+ *     (entrada, execução e cancelamento), medidos pelo ThreadMXBean da JVM, nos dois
+ *     modos de armazenamento do book.
+ *   java -cp bin app.BenchmarkBolsa profundidade [ordens]
+ *     Heap e memória direta ocupados por um book com a quantidade indicada de ordens
+ *     em repouso, no heap e fora do heap.
+ *   java -cp bin app.BenchmarkBolsa leilao [ordens]
+ *     Acúmulo de ordens (padrão: 1.000.000) em uma ação em leilão e tempo do encerramento
+ *     (cálculo do preço de equilíbrio e execução das ordens que se cruzam), nos dois modos.
+ *   java -cp bin app.BenchmarkBolsa reproducao [ordens]
+ *     Grava o fluxo de eventos de ordens e cancelamentos (padrão: 1.000.000 de ordens)
+ *     e mede a reprodução do arquivo, sem pausas, em uma bolsa nova.
+ *   java -cp bin app.BenchmarkBolsa sobrecarga [iteracoes]
+ *     Um investidor inunda o servidor com ordens de várias threads enquanto outro envia
+ *     uma ordem por vez; compara a latência do segundo com e sem a admissão de ordens
+ *     e conta as ordens recusadas por fila cheia.
+ *
+ * Os cenários de transporte desativam o limite de taxa do controle de risco,
+ * já que enviam milhares de ordens por segundo de um único investidor.
+ */
+package app;
+
+import controller.AdmissaoOrdens;
+import controller.BolsaValoresController;
+import gateway.ClienteGatewayNio;
+import gateway.GatewayOrdensNio;
+import ipc.ClienteIpc;
+import ipc.TransporteIpcServidor;
+import model.Ordem;
+import model.OrdemRejeitadaException;
+import model.ResultadoLeilao;
+import rmi.BolsaValoresControllerRemote;
+import replay.GravadorEventos;
+import replay.ReprodutorEventos;
+import replay.ResultadoReproducao;
+import rmi.BolsaValoresControllerRemoteImpl;
+import service.BolsaValoresService;
+import service.BookDeOfertas;
+import service.ControleRisco;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToLongFunction;
+
+/**
+ * Classe principal dos benchmarks.
+ */
+public class BenchmarkBolsa {
+    private static final int PORTA_REGISTRO = 1199;
+    private static final int PORTA_GATEWAY = 9101;
+    private static final int THREADS_INUNDACAO = 64;
+    private static final long PAUSA_APOS_RECUSA_NANOS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        String cenario = args.length > 0 ? args[0] : "gateway";
+        int iteracoes = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        PrintStream saida = System.out;
+        // Os logs do servidor distorcem as medições
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            switch (cenario) {
+                case "gateway":
+                    benchmarkGateway(saida, iteracoes);
+                    break;
+                case "ipc":
+                    benchmarkIpc(saida, iteracoes);
+                    break;
+                case "risco":
+                    benchmarkRisco(saida, iteracoes);
+                    break;
+                case "ciclo":
+                    benchmarkCiclo(saida, iteracoes, BookDeOfertas.ModoArmazenamento.HEAP);
+                    benchmarkCiclo(saida, iteracoes, BookDeOfertas.ModoArmazenamento.FORA_DO_HEAP);
+                    break;
+                case "profundidade":
+                    benchmarkProfundidade(saida, iteracoes, BookDeOfertas.ModoArmazenamento.HEAP);
+                    benchmarkProfundidade(saida, iteracoes, BookDeOfertas.ModoArmazenamento.FORA_DO_HEAP);
+                    break;
+                case "leilao":
+                    int ordens = args.length > 1 ? iteracoes : 1_000_000;
+                    benchmarkLeilao(saida, ordens, BookDeOfertas.ModoArmazenamento.HEAP);
+                    benchmarkLeilao(saida, ordens, BookDeOfertas.ModoArmazenamento.FORA_DO_HEAP);
+                    break;
+                case "reproducao":
+                    benchmarkReproducao(saida, args.length > 1 ? iteracoes : 1_000_000);
+                    break;
+                case "sobrecarga":
+                    benchmarkSobrecarga(saida, iteracoes);
+                    break;
+                default:
+                    saida.println("Cenário desconhecido: " + cenario);
+            }
+        } finally {
+            System.setOut(saida);
+        }
+    }
+
+    /**
+     * Envia pares compra/venda que se casam, medindo cada ida e volta pelo RMI e pelo gateway.
+     */
+    private static void benchmarkGateway(PrintStream saida, int iteracoes) throws Exception {
+        BolsaValoresController controller = new BolsaValoresController(servicoSemLimiteDeTaxa());
+
+        BolsaValoresControllerRemoteImpl controllerRemoto = new BolsaValoresControllerRemoteImpl(controller);
+        Registry registry = LocateRegistry.createRegistry(PORTA_REGISTRO);
+        registry.bind("BolsaValores", controllerRemoto);
+        BolsaValoresControllerRemote rmi = (BolsaValoresControllerRemote)
+                LocateRegistry.getRegistry("localhost", PORTA_REGISTRO).lookup("BolsaValores");
+
+        GatewayOrdensNio gateway = new GatewayOrdensNio(controller, PORTA_GATEWAY);
+        gateway.iniciar();
+
+        try (ClienteGatewayNio nio = new ClienteGatewayNio("localhost", PORTA_GATEWAY, null)) {
+            long[] latenciasRmi = new long[iteracoes];
+            long[] latenciasNio = new long[iteracoes];
+            // Aquecimento do JIT nos dois caminhos
+            for (int i = 0; i < iteracoes; i++) {
+                rmi.enviarOrdem(new Ordem("INV-BENCH", "PETR4", tipo(i), 28.50, 100));
+                nio.enviarOrdem("INV-BENCH", "PETR4", tipo(i), 28.50, 100);
+            }
+            for (int i = 0; i < iteracoes; i++) {
+                long inicio = System.nanoTime();
+                rmi.enviarOrdem(new Ordem("INV-BENCH", "PETR4", tipo(i), 28.50, 100));
+                latenciasRmi[i] = System.nanoTime() - inicio;
+            }
+            for (int i = 0; i < iteracoes; i++) {
+                long inicio = System.nanoTime();
+                nio.enviarOrdem("INV-BENCH", "PETR4", tipo(i), 28.50, 100);
+                latenciasNio[i] = System.nanoTime() - inicio;
+            }
+            imprimirPercentis(saida, "RMI enviarOrdem", latenciasRmi);
+            imprimirPercentis(saida, "Gateway NIO", latenciasNio);
+        } finally {
+            gateway.parar();
+            registry.unbind("BolsaValores");
+            UnicastRemoteObject.unexportObject(controllerRemoto, true);
+            UnicastRemoteObject.unexportObject(registry, true);
+        }
+    }
+
+    /**
+     * Envia pares compra/venda que se casam pelo transporte IPC, medindo cada ida e volta.
+     */
+    private static void benchmarkIpc(PrintStream saida, int iteracoes) throws Exception {
+        BolsaValoresController controller = new BolsaValoresController(servicoSemLimiteDeTaxa());
+        Path diretorio = Files.createTempDirectory("bolsa-ipc-bench");
+        TransporteIpcServidor transporte = new TransporteIpcServidor(controller, diretorio);
+        transporte.iniciar();
+
+        try (ClienteIpc ipc = new ClienteIpc(diretorio, "bench", null)) {
+            long[] latencias = new long[iteracoes];
+            // Aquecimento do JIT (a primeira ordem também aguarda o servidor descobrir o cliente)
+            for (int i = 0; i < iteracoes; i++) {
+                ipc.enviarOrdem("INV-BENCH", "PETR4", tipo(i), 28.50, 100);
+            }
+            for (int i = 0; i < iteracoes; i++) {
+                long inicio = System.nanoTime();
+                ipc.enviarOrdem("INV-BENCH", "PETR4", tipo(i), 28.50, 100);
+                latencias[i] = System.nanoTime() - inicio;
+            }
+            imprimirPercentis(saida, "IPC memória", latencias);
+        } finally {
+            transporte.parar();
+        }
+    }
+
+    /**
+     * Mede aceitar() seguido da execução que libera os limites, com ordens pré-alocadas
+     * para que só o controle de risco entre na medição.
+     */
+    private static void benchmarkRisco(PrintStream saida, int iteracoes) {
+        BolsaValoresService service = new BolsaValoresService();
+        ControleRisco risco = semLimiteDeTaxa(service);
+        Ordem[] ordens = new Ordem[1024];
+        for (int i = 0; i < ordens.length; i++) {
+            ordens[i] = new Ordem("INV-" + (i % 256), "PETR4", tipo(i), 28.50, 100);
+        }
+        long[] latencias = new long[iteracoes];
+        for (int rodada = 0; rodada < 2; rodada++) {
+            for (int i = 0; i < iteracoes; i++) {
+                Ordem ordem = ordens[i & (ordens.length - 1)];
+                long inicio = System.nanoTime();
+                risco.aceitar(ordem);
+                risco.ordemExecutada("PETR4", ordem.getInvestidorId(), ordem.getTipo(), 28.50, 28.50, 100);
+                latencias[i] = System.nanoTime() - inicio;
+            }
+        }
+        imprimirPercentis(saida, "Risco aceitar+exec", latencias);
+    }
+
+    /**
+     * Cada iteração faz quatro operações no book: duas compras em repouso em níveis
+     * variados, uma venda que executa a primeira e o cancelamento da segunda.
+     * O book volta a ficar vazio, então em regime não deve haver alocação.
+     */
+    private static void benchmarkCiclo(PrintStream saida, int iteracoes, BookDeOfertas.ModoArmazenamento modo) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        BookDeOfertas book = new BookDeOfertas(modo);
+        for (int rodada = 0; rodada < 2; rodada++) {
+            // A primeira rodada aquece o JIT e dimensiona o pool
+            long alocadoAntes = threads.getThreadAllocatedBytes(threadId);
+            long inicio = System.nanoTime();
+            for (int i = 0; i < iteracoes; i++) {
+                double preco = 28.50 + (i % 8) * 0.01;
+                book.adicionarOrdem("INV-A", "PETR4", Ordem.TipoOrdem.COMPRA, preco, 100);
+                long emRepouso = book.adicionarOrdem("INV-B", "PETR4", Ordem.TipoOrdem.COMPRA, preco - 0.05, 100);
+                book.adicionarOrdem("INV-C", "PETR4", Ordem.TipoOrdem.VENDA, preco, 100);
+                book.cancelarOrdem(emRepouso);
+            }
+            long nanos = System.nanoTime() - inicio;
+            long alocado = threads.getThreadAllocatedBytes(threadId) - alocadoAntes;
+            if (rodada == 1) {
+                long operacoes = iteracoes * 4L;
+                saida.printf("%-20s n=%d  %.1f ns/op  %.2f B/op  ordens em repouso=%d%n", "Book ciclo " + modo, operacoes,
+                    (double) nanos / operacoes, (double) alocado / operacoes, book.getQuantidadeOrdens());
+            }
+        }
+    }
+
+    /**
+     * Preenche um book com ordens em repouso de vários investidores, ações e níveis
+     * (sem cruzar) e mede o heap ocupado após coleta e a memória direta reservada.
+     */
+    private static void benchmarkProfundidade(PrintStream saida, int ordens, BookDeOfertas.ModoArmazenamento modo) {
+        String[] simbolos = {"PETR4", "VALE3", "ITUB4", "BBDC4", "ABEV3"};
+        String[] investidores = new String[1000];
+        for (int i = 0; i < investidores.length; i++) {
+            investidores[i] = "INV-" + i;
+        }
+        long heapAntes = heapUsadoAposColeta();
+        long diretaAntes = memoriaDireta();
+        BookDeOfertas book = new BookDeOfertas(modo);
+        for (int i = 0; i < ordens; i++) {
+            boolean compra = i % 2 == 0;
+            // Compras abaixo de R$50 e vendas acima, em 1000 níveis por lado
+            double preco = compra ? 40.00 + (i % 1000) * 0.01 : 50.00 + (i % 1000) * 0.01;
+            book.adicionarOrdem(investidores[i % investidores.length], simbolos[i % simbolos.length],
+                compra ? Ordem.TipoOrdem.COMPRA : Ordem.TipoOrdem.VENDA, preco, 100);
+        }
+        long heap = heapUsadoAposColeta() - heapAntes;
+        long direta = memoriaDireta() - diretaAntes;
+        saida.printf("%-20s ordens=%d  heap=%.1f MB  memória direta=%.1f MB%n", "Book " + modo,
+            book.getQuantidadeOrdens(), heap / 1048576.0, direta / 1048576.0);
+    }
+
+    /**
+     * Acumula ordens de compra e venda com preços que se sobrepõem em uma ação em leilão
+     * e mede o encerramento. Uma rodada menor antes aquece o JIT.
+     */
+    private static void benchmarkLeilao(PrintStream saida, int ordens, BookDeOfertas.ModoArmazenamento modo) {
+        executarLeilao(Math.max(1, ordens / 10), modo);
+        long[] medicoes = executarLeilao(ordens, modo);
+        saida.printf("%-20s ordens=%d  acúmulo=%.1f ns/ordem  encerramento=%.1f ms  executado=%d ações em %d negócios%n",
+            "Leilão " + modo, ordens, (double) medicoes[0] / ordens, medicoes[1] / 1e6, medicoes[2], medicoes[3]);
+    }
+
+    /**
+     * @return Tempo de acúmulo (ns), tempo de encerramento (ns), quantidade executada e negócios
+     */
+    private static long[] executarLeilao(int ordens, BookDeOfertas.ModoArmazenamento modo) {
+        String[] investidores = new String[1000];
+        for (int i = 0; i < investidores.length; i++) {
+            investidores[i] = "INV-" + i;
+        }
+        Random random = new Random(42);
+        BookDeOfertas book = new BookDeOfertas(modo);
+        book.iniciarLeilao("PETR4");
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ordens; i++) {
+            boolean compra = i % 2 == 0;
+            // Compras entre R$27,50 e R$29,49, vendas entre R$28,00 e R$29,99: 200 níveis por lado
+            double preco = (compra ? 27.50 : 28.00) + random.nextInt(200) * 0.01;
+            book.adicionarOrdem(investidores[i % investidores.length], "PETR4",
+                compra ? Ordem.TipoOrdem.COMPRA : Ordem.TipoOrdem.VENDA, preco, (random.nextInt(10) + 1) * 100);
+        }
+        long acumulo = System.nanoTime() - inicio;
+        inicio = System.nanoTime();
+        ResultadoLeilao resultado = book.encerrarLeilao("PETR4", 28.50);
+        long encerramento = System.nanoTime() - inicio;
+        return new long[] {acumulo, encerramento, resultado.getQuantidade(), resultado.getNegocios()};
+    }
+
+    /**
+     * Grava ordens aleatórias de vários investidores (uma em cada quatro é cancelada)
+     * e reproduz o arquivo em uma bolsa nova, conferindo que o book final é o mesmo.
+     */
+    private static void benchmarkReproducao(PrintStream saida, int ordens) throws Exception {
+        Path arquivo = Files.createTempFile("bolsa-eventos", ".bin");
+        try {
+            String[] investidores = new String[1000];
+            for (int i = 0; i < investidores.length; i++) {
+                investidores[i] = "INV-" + i;
+            }
+            BolsaValoresController origem = new BolsaValoresController(servicoSemLimiteDeTaxa());
+            Random random = new Random(42);
+            long inicio = System.nanoTime();
+            long gravados;
+            try (GravadorEventos gravador = new GravadorEventos(arquivo)) {
+                origem.setGravador(gravador);
+                for (int i = 0; i < ordens; i++) {
+                    Ordem.TipoOrdem tipo = random.nextBoolean() ? Ordem.TipoOrdem.COMPRA : Ordem.TipoOrdem.VENDA;
+                    double preco = 28.00 + random.nextInt(100) * 0.01;
+                    try {
+                        long ordemId = origem.enviarOrdem(new Ordem(investidores[i % investidores.length], "PETR4", tipo, preco, 100));
+                        if (i % 4 == 3) {
+                            origem.cancelarOrdem(ordemId, investidores[i % investidores.length]);
+                        }
+                    } catch (OrdemRejeitadaException e) {
+                        // Limites de risco da origem; a ordem não entra na gravação
+                    }
+                }
+                gravados = gravador.getEventos();
+            }
+            long gravacao = System.nanoTime() - inicio;
+            saida.printf("%-20s eventos=%d  %.1f ms  arquivo=%.1f MB%n", "Gravação", gravados,
+                gravacao / 1e6, Files.size(arquivo) / 1048576.0);
+
+            BolsaValoresController destino = new BolsaValoresController(new BolsaValoresService());
+            ResultadoReproducao resultado;
+            try (ReprodutorEventos reprodutor = new ReprodutorEventos(arquivo)) {
+                resultado = reprodutor.reproduzir(destino, 0);
+            }
+            saida.printf("%-20s eventos=%d  %.1f ms  %.0f eventos/s  ordens em repouso: origem=%d destino=%d%n",
+                "Reprodução", resultado.getEventos(), resultado.getNanos() / 1e6, resultado.getEventosPorSegundo(),
+                origem.getBookDeOfertas().getQuantidadeOrdens(), destino.getBookDeOfertas().getQuantidadeOrdens());
+        } finally {
+            Files.deleteIfExists(arquivo);
+        }
+    }
+
+    /**
+     * Mede a latência de um investidor comportado enquanto THREADS_INUNDACAO threads de
+     * outro investidor enviam ordens sem parar, primeiro direto no controller e depois
+     * pela admissão de ordens.
+     */
+    private static void benchmarkSobrecarga(PrintStream saida, int iteracoes) throws Exception {
+        BolsaValoresController direto = new BolsaValoresController(servicoSemLimiteDeTaxa());
+        imprimirPercentis(saida, "Sem admissão", executarSobrecarga(direto::enviarOrdem, iteracoes, null));
+
+        BolsaValoresController controller = new BolsaValoresController(servicoSemLimiteDeTaxa());
+        AdmissaoOrdens admissao = new AdmissaoOrdens(controller);
+        AtomicLong aceitas = new AtomicLong();
+        imprimirPercentis(saida, "Com admissão", executarSobrecarga(admissao::enviarOrdem, iteracoes, aceitas));
+        saida.printf("%-20s aceitas=%d  recusadas por fila cheia=%d%n", "Inundação", aceitas.get(), admissao.getRecusadas());
+    }
+
+    private static long[] executarSobrecarga(ToLongFunction<Ordem> envio, int iteracoes, AtomicLong aceitasInundacao)
+            throws InterruptedException {
+        AtomicBoolean ativo = new AtomicBoolean(true);
+        Thread[] threads = new Thread[THREADS_INUNDACAO];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; ativo.get(); i++) {
+                    try {
+                        envio.applyAsLong(new Ordem("INV-INUNDACAO", "PETR4", tipo(i), 28.50, 100));
+                        if (aceitasInundacao != null) {
+                            aceitasInundacao.incrementAndGet();
+                        }
+                    } catch (OrdemRejeitadaException e) {
+                        // Cliente recusado por sobrecarga espera antes de tentar de novo
+                        LockSupport.parkNanos(PAUSA_APOS_RECUSA_NANOS);
+                    }
+                }
+            });
+            threads[t].setDaemon(true);
+            threads[t].start();
+        }
+        long[] latencias = new long[iteracoes];
+        for (int rodada = 0; rodada < 2; rodada++) {
+            for (int i = 0; i < iteracoes; i++) {
+                Ordem ordem = new Ordem("INV-BENCH", "PETR4", tipo(i), 28.50, 100);
+                long inicio = System.nanoTime();
+                envio.applyAsLong(ordem);
+                latencias[i] = System.nanoTime() - inicio;
+            }
+        }
+        ativo.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return latencias;
+    }
+
+    private static long heapUsadoAposColeta() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long memoriaDireta() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    private static BolsaValoresService servicoSemLimiteDeTaxa() {
+        BolsaValoresService service = new BolsaValoresService();
+        semLimiteDeTaxa(service);
+        return service;
+    }
+
+    private static ControleRisco semLimiteDeTaxa(BolsaValoresService service) {
+        ControleRisco risco = new ControleRisco(service.getAcoes(), ControleRisco.QUANTIDADE_MAXIMA_PADRAO,
+            ControleRisco.BANDA_PRECO_PADRAO, ControleRisco.NOCIONAL_MAXIMO_PADRAO, ControleRisco.POSICAO_MAXIMA_PADRAO,
+            Integer.MAX_VALUE, Integer.MAX_VALUE);
+        service.setControleRisco(risco);
+        return risco;
+    }
+
+    private static Ordem.TipoOrdem tipo(int i) {
+        return i % 2 == 0 ? Ordem.TipoOrdem.COMPRA : Ordem.TipoOrdem.VENDA;
+    }
+
+    private static void imprimirPercentis(PrintStream saida, String nome, long[] latenciasNanos) {
+        long[] ordenadas = latenciasNanos.clone();
+        Arrays.sort(ordenadas);
+        saida.printf("%-20s n=%d  p50=%.1fus  p99=%.1fus  p99.9=%.1fus  max=%.1fus%n", nome, ordenadas.length,
+            percentil(ordenadas, 0.50) / 1000.0, percentil(ordenadas, 0.99) / 1000.0,
+            percentil(ordenadas, 0.999) / 1000.0, ordenadas[ordenadas.length - 1] / 1000.0);
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))];
+    }
+}
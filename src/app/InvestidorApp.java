@@ -14,8 +14,14 @@
  */
 package app;
 
+import cliente.EspelhoMercado;
 import model.Acao;
+import model.AtualizacaoMercado;
+import model.Carteira;
+import model.NivelBook;
 import model.Ordem;
+import model.OrdemRejeitadaException;
+import model.PosicaoCarteira;
 import rmi.BolsaValoresControllerRemote;
 
 import java.rmi.NoSuchObjectException;
@@ -23,12 +29,14 @@ import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Scanner;
 import java.util.UUID;
 
+import interfaces.EspelhoMercadoListener;
 import interfaces.InvestidorRemote;
 
 /**
@@ -41,12 +49,16 @@ public class InvestidorApp {
      */
     private static class InvestidorImpl extends UnicastRemoteObject implements InvestidorRemote {
         private static final long serialVersionUID = 1L;
+        // Níveis de preço exibidos por lado a cada alteração do book
+        private static final int NIVEIS_EXIBIDOS = 3;
         // Identificador único do investidor
         private final String id;
         // Ações que o investidor acompanha
         private final Map<String, Acao> acoesSeguidas;
         // Referência remota ao controller
         private final BolsaValoresControllerRemote bolsa;
+        // Espelho local do preço e do book das ações acompanhadas, alimentado pelo servidor
+        private final EspelhoMercado espelho;
         private final Random random = new Random();
 
         /**
@@ -57,6 +69,8 @@ public class InvestidorApp {
             this.id = id;
             this.acoesSeguidas = acoes;
             this.bolsa = bolsa;
+            this.espelho = new EspelhoMercado(acoes.keySet());
+            this.espelho.adicionarListener(new ExibidorMercado());
             // Thread que envia ordens aleatórias periodicamente
             Thread threadReacao = new Thread(new ReatorDePrecos());
             threadReacao.setDaemon(true);
@@ -81,17 +95,37 @@ public class InvestidorApp {
         public void notificarAlteracaoBook(String simboloAcao) throws RemoteException {
             if (acoesSeguidas.containsKey(simboloAcao)) {
                 System.out.println("[BOOK] Alteração no book de ofertas para " + simboloAcao);
-                List<Ordem> compras = bolsa.listarOrdensCompra(simboloAcao);
-                List<Ordem> vendas = bolsa.listarOrdensVenda(simboloAcao);
-                System.out.println("  COMPRAS:");
-                for (int i = 0; i < Math.min(3, compras.size()); i++) {
-                    System.out.println("    " + compras.get(i));
-                }
-                System.out.println("  VENDAS:");
-                for (int i = 0; i < Math.min(3, vendas.size()); i++) {
-                    System.out.println("    " + vendas.get(i));
-                }
-                System.out.println();
+            }
+        }
+
+        /**
+         * Recebe o estado atual de uma ação e o aplica ao espelho local.
+         */
+        @Override
+        public void atualizarMercado(AtualizacaoMercado atualizacao) throws RemoteException {
+            espelho.aplicar(atualizacao);
+        }
+
+        /**
+         * Aviso de suspensão de uma ação por volatilidade.
+         */
+        @Override
+        public void notificarSuspensao(String simboloAcao, double preco, boolean leilao) throws RemoteException {
+            espelho.setSuspensa(simboloAcao, true);
+            if (acoesSeguidas.containsKey(simboloAcao)) {
+                System.out.printf("[SUSPENSÃO] %s: preço R$%.2f fora das bandas (%s)\n",
+                    simboloAcao, preco, leilao ? "leilão de volatilidade" : "negociação suspensa");
+            }
+        }
+
+        /**
+         * Aviso de retomada da negociação de uma ação.
+         */
+        @Override
+        public void notificarRetomada(String simboloAcao) throws RemoteException {
+            espelho.setSuspensa(simboloAcao, false);
+            if (acoesSeguidas.containsKey(simboloAcao)) {
+                System.out.println("[RETOMADA] " + simboloAcao);
             }
         }
 
@@ -103,6 +137,33 @@ public class InvestidorApp {
             return id;
         }
 
+        /**
+         * Exibe as mudanças de preço e do book a partir do espelho local, sem consultar o servidor.
+         */
+        private class ExibidorMercado implements EspelhoMercadoListener {
+            @Override
+            public void mercadoAtualizado(AtualizacaoMercado anterior, AtualizacaoMercado atual) {
+                String simbolo = atual.getSimboloAcao();
+                if (anterior != null && anterior.getPreco() != atual.getPreco()) {
+                    System.out.printf("[ATUALIZAÇÃO] %s: R$%.2f -> R$%.2f (Variação: %.2f%%)\n",
+                        simbolo, anterior.getPreco(), atual.getPreco(), ((atual.getPreco() / anterior.getPreco()) - 1) * 100);
+                }
+                if (anterior == null || !anterior.mesmoBook(atual)) {
+                    System.out.println("[BOOK] " + simbolo);
+                    exibirNiveis("COMPRAS", espelho.getNiveisCompra(simbolo));
+                    exibirNiveis("VENDAS", espelho.getNiveisVenda(simbolo));
+                    System.out.println();
+                }
+            }
+
+            private void exibirNiveis(String titulo, List<NivelBook> niveis) {
+                System.out.println("  " + titulo + ":");
+                for (int i = 0; i < niveis.size() && i < NIVEIS_EXIBIDOS; i++) {
+                    System.out.println("    " + niveis.get(i));
+                }
+            }
+        }
+
         /**
          * Thread interna que envia ordens de compra/venda aleatórias periodicamente.
          */
@@ -115,15 +176,22 @@ public class InvestidorApp {
                         String[] simbolos = acoesSeguidas.keySet().toArray(new String[0]);
                         if (simbolos.length > 0) {
                             String simboloEscolhido = simbolos[random.nextInt(simbolos.length)];
-                            Acao acao = bolsa.obterAcao(simboloEscolhido);
+                            // Preço lido do espelho local; sem atualização ainda, aguarda o próximo ciclo
+                            double precoBase = espelho.getPreco(simboloEscolhido);
+                            if (Double.isNaN(precoBase) || espelho.isSuspensa(simboloEscolhido)) {
+                                continue;
+                            }
                             Ordem.TipoOrdem tipoOrdem = random.nextBoolean() ? Ordem.TipoOrdem.COMPRA : Ordem.TipoOrdem.VENDA;
-                            double precoBase = acao.getPreco();
                             double variacao = precoBase * (random.nextDouble() * 0.06 - 0.03);
                             double preco = Math.max(0.01, precoBase + variacao);
                             int quantidade = (random.nextInt(10) + 1) * 100;
                             Ordem ordem = new Ordem(id, simboloEscolhido, tipoOrdem, preco, quantidade);
-                            bolsa.enviarOrdem(ordem);
-                            System.out.println("[ORDEM ENVIADA] " + ordem);
+                            try {
+                                long ordemId = bolsa.enviarOrdem(ordem);
+                                System.out.println("[ORDEM ENVIADA] #" + ordemId + " " + ordem);
+                            } catch (OrdemRejeitadaException e) {
+                                System.out.println("[ORDEM REJEITADA] " + ordem + ": " + e.getMessage());
+                            }
                         }
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
@@ -158,9 +226,15 @@ public class InvestidorApp {
                 System.out.println("  " + acao);
             }
             InvestidorImpl investidor = new InvestidorImpl(investidorId, acoes, bolsa);
-            bolsa.registrarListener(investidor);
+            // Recebe do servidor apenas as ações acompanhadas
+            bolsa.registrarListener(investidor, new HashSet<>(acoes.keySet()));
             System.out.println("\nInvestidor conectado à bolsa. Pressione ENTER para sair.");
             scanner.nextLine();
+            Carteira carteira = bolsa.consultarCarteira(investidorId);
+            System.out.println(carteira);
+            for (PosicaoCarteira posicao : carteira.getPosicoes()) {
+                System.out.println("  " + posicao);
+            }
             try {
                 bolsa.cancelarRegistroListener(investidor);
                 UnicastRemoteObject.unexportObject(investidor, true);
@@ -0,0 +1,56 @@
+/*
+ * Reprodução de um fluxo de eventos gravado pelo servidor
+ *
+ * Aplica um arquivo gravado com -Dbolsa.gravacao a uma bolsa nova (mesmas ações e
+ * preços iniciais do servidor) e informa a taxa obtida e o estado final.
+ *
+ *   java -cp bin app.ReprodutorMercado <arquivo> [velocidade]
+ *
+ * Velocidade: 1 reproduz em tempo real, N reproduz N vezes mais rápido e "max"
+ * (padrão) reproduz o mais rápido possível.
+ */
+package app;
+
+import controller.BolsaValoresController;
+import model.Acao;
+import model.Ordem;
+import replay.ReprodutorEventos;
+import replay.ResultadoReproducao;
+import service.BolsaValoresService;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classe principal da reprodução de eventos.
+ */
+public class ReprodutorMercado {
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Uso: java app.ReprodutorMercado <arquivo> [velocidade|max]");
+            return;
+        }
+        double velocidade = args.length > 1 && !args[1].equals("max") ? Double.parseDouble(args[1]) : 0;
+        BolsaValoresService service = new BolsaValoresService();
+        BolsaValoresController controller = new BolsaValoresController(service);
+        AtomicLong negocios = new AtomicLong();
+        service.getBookDeOfertas().adicionarListenerExecucao((simboloAcao, investidorId, tipo, precoOrdem, precoNegocio, quantidade) -> {
+            if (tipo == Ordem.TipoOrdem.COMPRA) {
+                negocios.incrementAndGet();
+            }
+        });
+        try (ReprodutorEventos reprodutor = new ReprodutorEventos(Path.of(args[0]))) {
+            System.out.println("Reproduzindo " + args[0] + (velocidade > 0 ? " em " + velocidade + "x" : " sem pausas") + "...");
+            ResultadoReproducao resultado = reprodutor.reproduzir(controller, velocidade);
+            System.out.println(resultado);
+            System.out.println("Negócios: " + negocios.get() + " | ordens em repouso: "
+                + service.getBookDeOfertas().getQuantidadeOrdens());
+            for (Acao acao : controller.getAcoes().values()) {
+                System.out.println("  " + acao + "  " + controller.consultarCotacao(acao.getSimbolo()));
+            }
+        } catch (Exception e) {
+            System.err.println("Erro na reprodução: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
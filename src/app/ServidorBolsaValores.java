@@ -8,28 +8,103 @@
  * - Criar o serviço e controller
  * - Expor o controller remoto para clientes
  * - Iniciar threads de atualização de preços
+ * - Replicar o estado para um standby ou atuar como standby (failover)
+ *
+ * Modos de execução:
+ *   java app.ServidorBolsaValores
+ *   java app.ServidorBolsaValores primario <host:porta do standby> [sincrono|assincrono]
+ *   java app.ServidorBolsaValores standby [porta do registro do standby]
+ *
+ * Além do RMI, ordens podem ser enviadas pelo gateway binário NIO na porta 9001
+ * e, por clientes na mesma máquina, pelo transporte IPC de memória compartilhada.
+ *
+ * Com -Dbolsa.book=FORA_DO_HEAP as ordens em repouso ficam em memória direta
+ * (books muito profundos sem aumentar o heap).
+ * Com -Dbolsa.volatilidade=SUSPENSAO uma ação que viola as bandas de preço deixa de
+ * aceitar ordens até a retomada (padrão: LEILAO, as ordens se acumulam em leilão).
+ * Com -Dbolsa.gravacao=<arquivo> ordens, cancelamentos, preços e leilões são gravados
+ * desde o início para reprodução posterior (app.ReprodutorMercado).
+ *
+ * Leilões são abertos e encerrados pelo operador através do remoto "BolsaValoresAdmin",
+ * que só aceita conexões da própria máquina; os investidores não têm acesso a ele.
+ * As ordens via RMI passam pela admissão de ordens (fila limitada, com rodízio entre
+ * investidores); com a fila cheia a ordem é recusada com "sistema ocupado".
+ * Ao ser encerrado (Ctrl+C, SIGTERM) o servidor fecha as entradas de ordens,
+ * aguarda as ordens na fila, para as threads, descarrega a replicação e a gravação
+ * e retira os objetos do RMI.
  */
 package app;
 
-import rmi.BolsaValoresControllerRemote;
+import rmi.AdministracaoBolsaRemote;
+import rmi.AdministracaoBolsaRemoteImpl;
 import rmi.BolsaValoresControllerRemoteImpl;
+import rmi.ReplicaRemoteImpl;
 import service.BolsaValoresService;
+import service.BookDeOfertas;
+import service.ControleVolatilidade;
+import service.ReplicadorPrimario;
 import controller.BolsaValoresController;
+import gateway.GatewayOrdensNio;
+import ipc.TransporteIpcServidor;
+import replay.GravadorEventos;
+import interfaces.SuspensaoNegociacaoListener;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
 
 /**
  * Classe principal do servidor da bolsa de valores.
  * Inicia o serviço, expõe o controller remoto e aguarda conexões de investidores.
  */
 public class ServidorBolsaValores {
+    private static final int PORTA_REGISTRO = 1099;
+    private static final int PORTA_STANDBY_PADRAO = 1100;
+    private static final int PORTA_GATEWAY = 9001;
+    private static final long INTERVALO_SINAL_VIDA_MS = 200;
+    private static final long TOLERANCIA_SILENCIO_MS = 1500;
+    private static final String PROPRIEDADE_MODO_BOOK = "bolsa.book";
+    private static final String PROPRIEDADE_VOLATILIDADE = "bolsa.volatilidade";
+    private static final String PROPRIEDADE_GRAVACAO = "bolsa.gravacao";
+    private static final long PRAZO_DRENAGEM_MS = 5000;
+    private static final Encerramento ENCERRAMENTO = new Encerramento();
+
     public static void main(String[] args) {
+        Runtime.getRuntime().addShutdownHook(new Thread(ENCERRAMENTO, "encerramento"));
         try {
+            String modo = args.length > 0 ? args[0] : "";
+            if (modo.equals("standby")) {
+                int porta = args.length > 1 ? Integer.parseInt(args[1]) : PORTA_STANDBY_PADRAO;
+                iniciarStandby(porta);
+                return;
+            }
+
             // Inicializa o serviço de negócios da bolsa
-            BolsaValoresService service = new BolsaValoresService();
+            BolsaValoresService service = new BolsaValoresService(modoBook(), reacaoVolatilidade());
+            ENCERRAMENTO.service = service;
+            registrarLogExecucoes(service);
+            registrarLogSuspensoes(service);
             // Controller centraliza operações e é a ponte entre app e service
             BolsaValoresController controller = new BolsaValoresController(service);
+            iniciarGravacao(controller);
+
+            if (modo.equals("primario")) {
+                String[] destino = (args.length > 1 ? args[1] : "localhost:" + PORTA_STANDBY_PADRAO).split(":");
+                ReplicadorPrimario.ModoConfirmacao confirmacao = args.length > 2 && args[2].equals("sincrono")
+                        ? ReplicadorPrimario.ModoConfirmacao.SINCRONO
+                        : ReplicadorPrimario.ModoConfirmacao.ASSINCRONO;
+                ReplicadorPrimario replicador = new ReplicadorPrimario(destino[0],
+                        destino.length > 1 ? Integer.parseInt(destino[1]) : PORTA_STANDBY_PADRAO,
+                        confirmacao, INTERVALO_SINAL_VIDA_MS);
+                controller.setReplicador(replicador);
+                ENCERRAMENTO.replicador = replicador;
+                replicador.iniciar();
+                System.out.println("Replicação ativa para " + String.join(":", destino) + " (" + confirmacao + ")");
+            }
 
             // Exibe as ações disponíveis no início
             controller.getAcoes().forEach((k, v) -> System.out.println(v));
@@ -37,9 +112,15 @@ public class ServidorBolsaValores {
             // Inicia threads de atualização de preços
             service.iniciarSimulacao();
             // Expondo o controller remoto via RMI
-            BolsaValoresControllerRemote controllerRemoto = new BolsaValoresControllerRemoteImpl(controller);
-            Registry registry = LocateRegistry.createRegistry(1099);
+            BolsaValoresControllerRemoteImpl controllerRemoto = new BolsaValoresControllerRemoteImpl(controller);
+            ENCERRAMENTO.controllerRemoto = controllerRemoto;
+            Registry registry = LocateRegistry.createRegistry(PORTA_REGISTRO);
+            ENCERRAMENTO.registry = registry;
             registry.bind("BolsaValores", controllerRemoto);
+            AdministracaoBolsaRemoteImpl administracao = new AdministracaoBolsaRemoteImpl(controller);
+            ENCERRAMENTO.administracao = administracao;
+            registry.bind(AdministracaoBolsaRemote.NOME, administracao);
+            iniciarTransportes(service, controller);
             System.out.println("Servidor da Bolsa de Valores iniciado!");
             System.out.println("Aguardando conexões dos investidores...");
         } catch (Exception e) {
@@ -47,4 +128,206 @@ public class ServidorBolsaValores {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Inicia o gateway binário de ordens e o transporte IPC, assinando-os nas atualizações de preço.
+     */
+    private static void iniciarTransportes(BolsaValoresService service, BolsaValoresController controller) throws IOException {
+        GatewayOrdensNio gateway = new GatewayOrdensNio(controller, PORTA_GATEWAY);
+        gateway.iniciar();
+        ENCERRAMENTO.gateway = gateway;
+        service.adicionarListener(gateway);
+        System.out.println("Gateway binário de ordens na porta " + PORTA_GATEWAY);
+
+        TransporteIpcServidor ipc = new TransporteIpcServidor(controller, TransporteIpcServidor.diretorioPadrao());
+        ipc.iniciar();
+        ENCERRAMENTO.ipc = ipc;
+        service.adicionarListener(ipc);
+        System.out.println("Transporte IPC em " + TransporteIpcServidor.diretorioPadrao());
+    }
+
+    /**
+     * Grava o fluxo de eventos se -Dbolsa.gravacao foi informado. O arquivo é
+     * completado quando o servidor é encerrado.
+     */
+    private static void iniciarGravacao(BolsaValoresController controller) throws IOException {
+        String arquivo = System.getProperty(PROPRIEDADE_GRAVACAO);
+        if (arquivo == null) return;
+        GravadorEventos gravador = new GravadorEventos(Path.of(arquivo));
+        controller.setGravador(gravador);
+        ENCERRAMENTO.gravador = gravador;
+        System.out.println("Gravando eventos em " + arquivo);
+    }
+
+    private static BookDeOfertas.ModoArmazenamento modoBook() {
+        return BookDeOfertas.ModoArmazenamento.valueOf(System.getProperty(PROPRIEDADE_MODO_BOOK, "HEAP"));
+    }
+
+    private static ControleVolatilidade.Reacao reacaoVolatilidade() {
+        return ControleVolatilidade.Reacao.valueOf(System.getProperty(PROPRIEDADE_VOLATILIDADE, "LEILAO"));
+    }
+
+    /**
+     * Imprime as suspensões e retomadas por volatilidade.
+     */
+    private static void registrarLogSuspensoes(BolsaValoresService service) {
+        service.getControleVolatilidade().adicionarListener(new SuspensaoNegociacaoListener() {
+            @Override
+            public void negociacaoSuspensa(String simboloAcao, double preco, boolean leilao) {
+                System.out.println("[SUSPENSÃO] " + simboloAcao + " @ R$" + String.format("%.2f", preco) +
+                    (leilao ? " - leilão de volatilidade" : " - negociação suspensa"));
+            }
+
+            @Override
+            public void negociacaoRetomada(String simboloAcao) {
+                System.out.println("[RETOMADA] " + simboloAcao);
+            }
+        });
+    }
+
+    /**
+     * Imprime cada lado executado. O log fica fora do book para que o caminho
+     * de casamento não formate textos.
+     */
+    private static void registrarLogExecucoes(BolsaValoresService service) {
+        service.getBookDeOfertas().adicionarListenerExecucao((simboloAcao, investidorId, tipo, precoOrdem, precoNegocio, quantidade) ->
+            System.out.println("[EXECUÇÃO] " + tipo + " " + quantidade + " " + simboloAcao +
+                " @ R$" + String.format("%.2f", precoNegocio) + " - investidor " + investidorId));
+    }
+
+    /**
+     * Inicia o servidor em modo standby: aplica os eventos do primário
+     * e assume o registro "BolsaValores" quando o primário para de responder.
+     */
+    private static void iniciarStandby(int porta) throws Exception {
+        BolsaValoresService service = new BolsaValoresService(modoBook(), reacaoVolatilidade());
+        ENCERRAMENTO.service = service;
+        registrarLogExecucoes(service);
+        registrarLogSuspensoes(service);
+        BolsaValoresController controller = new BolsaValoresController(service);
+        Registry registryStandby = LocateRegistry.createRegistry(porta);
+        ENCERRAMENTO.registryStandby = registryStandby;
+
+        ReplicaRemoteImpl replica = new ReplicaRemoteImpl(controller, TOLERANCIA_SILENCIO_MS,
+                () -> assumirComoPrimario(service, controller, registryStandby));
+        ENCERRAMENTO.replica = replica;
+        registryStandby.bind(ReplicadorPrimario.NOME_REPLICA, replica);
+        replica.iniciarMonitoramento();
+        System.out.println("Servidor standby aguardando eventos do primário na porta " + porta + "...");
+    }
+
+    /**
+     * Failover: inicia a simulação e publica o controller e a administração no registro padrão.
+     * Se a porta padrão ainda estiver ocupada (ex: primário em outra máquina travado),
+     * publica no registro do próprio standby.
+     */
+    private static void assumirComoPrimario(BolsaValoresService service, BolsaValoresController controller, Registry registryStandby) {
+        try {
+            service.iniciarSimulacao();
+            BolsaValoresControllerRemoteImpl controllerRemoto = new BolsaValoresControllerRemoteImpl(controller);
+            ENCERRAMENTO.controllerRemoto = controllerRemoto;
+            AdministracaoBolsaRemoteImpl administracao = new AdministracaoBolsaRemoteImpl(controller);
+            ENCERRAMENTO.administracao = administracao;
+            try {
+                Registry registry = LocateRegistry.createRegistry(PORTA_REGISTRO);
+                ENCERRAMENTO.registry = registry;
+                registry.rebind("BolsaValores", controllerRemoto);
+                registry.rebind(AdministracaoBolsaRemote.NOME, administracao);
+                System.out.println("Standby assumiu como primário na porta " + PORTA_REGISTRO + "!");
+            } catch (RemoteException e) {
+                registryStandby.rebind("BolsaValores", controllerRemoto);
+                registryStandby.rebind(AdministracaoBolsaRemote.NOME, administracao);
+                System.out.println("Porta " + PORTA_REGISTRO + " indisponível; standby assumiu no próprio registro.");
+            }
+            iniciarTransportes(service, controller);
+        } catch (Exception e) {
+            System.err.println("Erro ao assumir como primário: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Encerramento ordenado, executado pelo gancho de desligamento da JVM.
+     * Cada componente é registrado aqui quando é criado; os ausentes são ignorados.
+     *
+     * Ordem: retira o controller do registro, fecha as entradas de ordens (RMI com
+     * drenagem da fila, gateway e IPC), para a simulação, descarrega replicação e
+     * gravação e, por fim, retira os objetos restantes do RMI.
+     */
+    private static class Encerramento implements Runnable {
+        private volatile BolsaValoresService service;
+        private volatile BolsaValoresControllerRemoteImpl controllerRemoto;
+        private volatile AdministracaoBolsaRemoteImpl administracao;
+        private volatile Registry registry;
+        private volatile Registry registryStandby;
+        private volatile ReplicaRemoteImpl replica;
+        private volatile GatewayOrdensNio gateway;
+        private volatile TransporteIpcServidor ipc;
+        private volatile ReplicadorPrimario replicador;
+        private volatile GravadorEventos gravador;
+
+        @Override
+        public void run() {
+            System.out.println("Encerrando o servidor...");
+            desvincular(registry);
+            desvincular(registryStandby);
+            if (replica != null) {
+                replica.encerrar();
+            }
+            if (administracao != null) {
+                administracao.encerrar();
+            }
+            if (controllerRemoto != null) {
+                if (!controllerRemoto.encerrar(PRAZO_DRENAGEM_MS)) {
+                    System.err.println("[ENCERRAMENTO] Ordens ainda na fila após " + PRAZO_DRENAGEM_MS + " ms");
+                }
+                System.out.println("[ENCERRAMENTO] Ordens recusadas por sobrecarga: " +
+                    controllerRemoto.getAdmissao().getRecusadas());
+            }
+            if (gateway != null) {
+                gateway.parar();
+            }
+            if (ipc != null) {
+                ipc.parar();
+            }
+            if (service != null) {
+                service.pararSimulacao();
+            }
+            if (replicador != null && !replicador.descarregar()) {
+                System.err.println("[ENCERRAMENTO] Réplica indisponível; eventos após #" +
+                    replicador.getSequenciaConfirmada() + " não confirmados");
+            }
+            if (gravador != null) {
+                try {
+                    gravador.close();
+                    System.out.println("[ENCERRAMENTO] " + gravador.getEventos() + " eventos gravados");
+                } catch (IOException e) {
+                    System.err.println("[GRAVAÇÃO] Erro ao fechar o arquivo: " + e.getMessage());
+                }
+            }
+            retirar(registry);
+            retirar(registryStandby);
+            System.out.println("Servidor encerrado.");
+        }
+
+        private static void desvincular(Registry registro) {
+            if (registro == null) return;
+            try {
+                for (String nome : registro.list()) {
+                    registro.unbind(nome);
+                }
+            } catch (Exception e) {
+                // Registro já indisponível: nada a retirar
+            }
+        }
+
+        private static void retirar(Registry registro) {
+            if (registro == null) return;
+            try {
+                UnicastRemoteObject.unexportObject(registro, true);
+            } catch (NoSuchObjectException e) {
+                // Já retirado
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Espelho local do mercado no cliente
+ *
+ * Guarda, para cada ação acompanhada, a última atualização enviada pelo servidor
+ * (preço e melhores níveis do book). As estratégias do cliente leem o preço e o
+ * book daqui, sem chamadas remotas; o servidor mantém o espelho atualizado pelo
+ * callback atualizarMercado.
+ *
+ * Cada atualização traz o estado completo da ação, então aplicar é apenas trocar
+ * a referência; atualizações com sequência menor ou igual à atual são descartadas.
+ * O espelho também guarda quais ações estão fora da negociação contínua (em leilão
+ * ou suspensas), pela fase de cada atualização e pelos avisos de suspensão.
+ */
+package cliente;
+
+import model.AtualizacaoMercado;
+import model.FaseNegociacao;
+import model.NivelBook;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import interfaces.EspelhoMercadoListener;
+
+public class EspelhoMercado {
+    private final Map<String, AtualizacaoMercado> estados = new ConcurrentHashMap<>();
+    private final Set<String> suspensas = ConcurrentHashMap.newKeySet();
+    // Ações acompanhadas; null acompanha todas
+    private final Set<String> simbolosSeguidos;
+    private final List<EspelhoMercadoListener> listeners = new ArrayList<>();
+
+    /**
+     * Cria um espelho que acompanha todas as ações recebidas.
+     */
+    public EspelhoMercado() {
+        this(null);
+    }
+
+    /**
+     * Cria um espelho que acompanha apenas as ações informadas.
+     * @param simbolosSeguidos Códigos das ações acompanhadas
+     */
+    public EspelhoMercado(Set<String> simbolosSeguidos) {
+        this.simbolosSeguidos = simbolosSeguidos == null ? null : Set.copyOf(simbolosSeguidos);
+    }
+
+    public void adicionarListener(EspelhoMercadoListener listener) {
+        synchronized (listeners) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removerListener(EspelhoMercadoListener listener) {
+        synchronized (listeners) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Aplica uma atualização recebida do servidor.
+     * @return true se a atualização foi aplicada; false se era antiga ou de ação não acompanhada
+     */
+    public boolean aplicar(AtualizacaoMercado atualizacao) {
+        String simbolo = atualizacao.getSimboloAcao();
+        if (simbolosSeguidos != null && !simbolosSeguidos.contains(simbolo)) {
+            return false;
+        }
+        AtualizacaoMercado anterior;
+        synchronized (this) {
+            anterior = estados.get(simbolo);
+            if (anterior != null && atualizacao.getSequencia() <= anterior.getSequencia()) {
+                return false;
+            }
+            estados.put(simbolo, atualizacao);
+            setSuspensa(simbolo, atualizacao.getFase() != FaseNegociacao.CONTINUA);
+        }
+        synchronized (listeners) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).mercadoAtualizado(anterior, atualizacao);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marca a ação como suspensa ou retomada, conforme o aviso do servidor.
+     */
+    public void setSuspensa(String simboloAcao, boolean suspensa) {
+        if (suspensa) {
+            suspensas.add(simboloAcao);
+        } else {
+            suspensas.remove(simboloAcao);
+        }
+    }
+
+    /**
+     * Indica se a ação está fora da negociação contínua (em leilão ou suspensa).
+     */
+    public boolean isSuspensa(String simboloAcao) {
+        return suspensas.contains(simboloAcao);
+    }
+
+    /**
+     * Retorna a fase de negociação conhecida da ação, ou null se ainda não houve atualização.
+     */
+    public FaseNegociacao getFase(String simboloAcao) {
+        AtualizacaoMercado estado = estados.get(simboloAcao);
+        return estado == null ? null : estado.getFase();
+    }
+
+    /**
+     * Retorna o último preço conhecido da ação, ou NaN se ainda não houve atualização.
+     */
+    public double getPreco(String simboloAcao) {
+        AtualizacaoMercado estado = estados.get(simboloAcao);
+        return estado == null ? Double.NaN : estado.getPreco();
+    }
+
+    /**
+     * Retorna os melhores níveis de compra conhecidos, do melhor para o pior.
+     */
+    public List<NivelBook> getNiveisCompra(String simboloAcao) {
+        AtualizacaoMercado estado = estados.get(simboloAcao);
+        return estado == null ? Collections.emptyList() : estado.getCompras();
+    }
+
+    /**
+     * Retorna os melhores níveis de venda conhecidos, do melhor para o pior.
+     */
+    public List<NivelBook> getNiveisVenda(String simboloAcao) {
+        AtualizacaoMercado estado = estados.get(simboloAcao);
+        return estado == null ? Collections.emptyList() : estado.getVendas();
+    }
+
+    /**
+     * Retorna a última atualização aplicada para a ação, ou null se não houver.
+     */
+    public AtualizacaoMercado getEstado(String simboloAcao) {
+        return estados.get(simboloAcao);
+    }
+}
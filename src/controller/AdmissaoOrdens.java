@@ -0,0 +1,200 @@
+/*
+ * Controle de admissão de ordens
+ *
+ * Fica na frente do controller para as chamadas concorrentes de enviarOrdem (RMI).
+ * Apenas uma ordem é aplicada por vez; as demais aguardam em uma fila limitada,
+ * separada por investidor e atendida em rodízio: um investidor que envia muitas
+ * ordens de uma vez espera pelas suas, sem atrasar os outros.
+ *
+ * Com a fila cheia (no total ou do investidor), a ordem é recusada na hora com
+ * "sistema ocupado", em vez de aguardar sem limite. Sob sobrecarga a latência das
+ * ordens aceitas fica limitada pelo tamanho da fila, e o excesso é devolvido ao cliente.
+ *
+ * Quem chama aplica a própria ordem quando chega a sua vez (não há thread de
+ * despacho); sem concorrência a ordem é aplicada direto, sem passar pela fila.
+ */
+package controller;
+
+import model.Ordem;
+import model.OrdemRejeitadaException;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+public class AdmissaoOrdens {
+    public static final int CAPACIDADE_PADRAO = 1024;
+    public static final int LIMITE_POR_INVESTIDOR_PADRAO = 32;
+
+    private final BolsaValoresController controller;
+    private final int capacidade;
+    private final int limitePorInvestidor;
+    // Ordens aguardando, por investidor
+    private final Map<String, ArrayDeque<Pedido>> filas = new HashMap<>();
+    // Investidores com ordens aguardando, na ordem do rodízio
+    private final ArrayDeque<String> rodizio = new ArrayDeque<>();
+    private int pendentes = 0;
+    // Há uma ordem sendo aplicada (ou a vez está sendo passada para a próxima)
+    private boolean ocupado = false;
+    private boolean aceitando = true;
+    private long recusadas = 0;
+
+    /**
+     * Cria a admissão com a capacidade e o limite por investidor padrão.
+     */
+    public AdmissaoOrdens(BolsaValoresController controller) {
+        this(controller, CAPACIDADE_PADRAO, LIMITE_POR_INVESTIDOR_PADRAO);
+    }
+
+    /**
+     * Cria a admissão.
+     * @param capacidade Máximo de ordens aguardando, somados todos os investidores
+     * @param limitePorInvestidor Máximo de ordens aguardando de um mesmo investidor
+     */
+    public AdmissaoOrdens(BolsaValoresController controller, int capacidade, int limitePorInvestidor) {
+        this.controller = controller;
+        this.capacidade = capacidade;
+        this.limitePorInvestidor = limitePorInvestidor;
+    }
+
+    /**
+     * Aguarda a vez da ordem e a envia ao controller.
+     * @return ID da ordem atribuído pelo book
+     * @throws OrdemRejeitadaException se a fila está cheia, a admissão foi encerrada
+     *         ou a ordem foi recusada pelo controller
+     */
+    public long enviarOrdem(Ordem ordem) {
+        Pedido pedido = null;
+        synchronized (this) {
+            if (!aceitando) {
+                throw new OrdemRejeitadaException("Sistema em encerramento");
+            }
+            if (!ocupado) {
+                ocupado = true;
+            } else {
+                pedido = enfileirar(ordem.getInvestidorId());
+            }
+        }
+        if (pedido != null) {
+            pedido.aguardar();
+        }
+        try {
+            return controller.enviarOrdem(ordem);
+        } finally {
+            passarVez();
+        }
+    }
+
+    /**
+     * Deixa de aceitar ordens e aguarda as que estão na fila serem aplicadas.
+     * @return true se a fila esvaziou dentro do prazo
+     */
+    public synchronized boolean encerrar(long prazoMs) {
+        aceitando = false;
+        long limite = System.currentTimeMillis() + prazoMs;
+        while (ocupado) {
+            long restante = limite - System.currentTimeMillis();
+            if (restante <= 0) return false;
+            try {
+                wait(restante);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retorna a quantidade de ordens aguardando a vez.
+     */
+    public synchronized int getPendentes() {
+        return pendentes;
+    }
+
+    /**
+     * Retorna a quantidade de ordens recusadas por fila cheia.
+     */
+    public synchronized long getRecusadas() {
+        return recusadas;
+    }
+
+    private Pedido enfileirar(String investidorId) {
+        if (pendentes >= capacidade) {
+            recusadas++;
+            throw new OrdemRejeitadaException("Sistema ocupado: fila de ordens cheia");
+        }
+        ArrayDeque<Pedido> fila = filas.get(investidorId);
+        if (fila == null) {
+            fila = new ArrayDeque<>();
+            filas.put(investidorId, fila);
+        }
+        if (fila.size() >= limitePorInvestidor) {
+            recusadas++;
+            throw new OrdemRejeitadaException("Sistema ocupado: limite de ordens aguardando do investidor " + investidorId);
+        }
+        if (fila.isEmpty()) {
+            rodizio.addLast(investidorId);
+        }
+        Pedido pedido = new Pedido();
+        fila.addLast(pedido);
+        pendentes++;
+        return pedido;
+    }
+
+    /**
+     * Libera a próxima ordem do rodízio; sem ordens aguardando, desocupa a admissão.
+     */
+    private void passarVez() {
+        Pedido proximo;
+        synchronized (this) {
+            String investidorId = rodizio.pollFirst();
+            if (investidorId == null) {
+                ocupado = false;
+                if (!aceitando) {
+                    notifyAll();
+                }
+                return;
+            }
+            ArrayDeque<Pedido> fila = filas.get(investidorId);
+            proximo = fila.pollFirst();
+            pendentes--;
+            if (fila.isEmpty()) {
+                filas.remove(investidorId);
+            } else {
+                rodizio.addLast(investidorId);
+            }
+        }
+        proximo.liberar();
+    }
+
+    /**
+     * Ordem aguardando a vez; cada uma tem o seu monitor para acordar apenas quem foi liberado.
+     */
+    private static class Pedido {
+        private boolean liberado = false;
+
+        synchronized void liberar() {
+            liberado = true;
+            notify();
+        }
+
+        /**
+         * Aguarda a liberação. Uma interrupção não abandona a fila (a vez já pode
+         * ter sido passada); ela é restaurada depois da liberação.
+         */
+        synchronized void aguardar() {
+            boolean interrompido = false;
+            while (!liberado) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrompido = true;
+                }
+            }
+            if (interrompido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -8,15 +8,28 @@
  * - Consultar ações e ordens
  * - Enviar ordens para o book
  * - Gerenciar listeners de preço
+ * - Abrir e encerrar leilões
  * - Garantir separação de camadas
  */
 package controller;
 
 import model.Acao;
+import model.Carteira;
+import model.Cotacao;
+import model.EventoReplicacao;
+import model.FaseNegociacao;
+import model.NivelBook;
 import model.Ordem;
+import model.OrdemRejeitadaException;
+import model.PosicaoCarteira;
+import model.ResultadoLeilao;
+import model.SnapshotMercado;
 import service.BolsaValoresService;
 import interfaces.PrecoAcaoListener;
+import interfaces.SuspensaoNegociacaoListener;
+import replay.GravadorEventos;
 import service.BookDeOfertas;
+import service.ReplicadorPrimario;
 
 import java.util.List;
 import java.util.Map;
@@ -27,12 +40,17 @@ import java.util.Map;
  */
 public class BolsaValoresController {
     private final BolsaValoresService service;
+    // Garante que a ordem de replicação seja a mesma ordem de aplicação no book
+    private final Object sequenciador = new Object();
+    // Volátil: a confirmação da réplica é aguardada fora do sequenciador
+    private volatile ReplicadorPrimario replicador;
+    private GravadorEventos gravador;
 
     /**
      * Construtor padrão: cria um novo service.
      */
     public BolsaValoresController() {
-        this.service = new BolsaValoresService();
+        this(new BolsaValoresService());
     }
 
     /**
@@ -40,6 +58,10 @@ public class BolsaValoresController {
      */
     public BolsaValoresController(BolsaValoresService service) {
         this.service = service;
+        // Retomadas por fim de prazo passam pelo controller para serem replicadas
+        service.getControleVolatilidade().setRetomada(this::encerrarLeilao);
+        // Preços da simulação são aplicados e publicados na mesma sequência das ordens
+        service.setSequenciador(sequenciador);
     }
 
     /**
@@ -63,6 +85,20 @@ public class BolsaValoresController {
         return service.getAcoes();
     }
 
+    /**
+     * Retorna a fotografia imutável atual do mercado (preços e melhor oferta por ação).
+     */
+    public SnapshotMercado obterSnapshot() {
+        return service.getSnapshot();
+    }
+
+    /**
+     * Retorna a fotografia do mercado, ou null se a versão conhecida ainda é a atual.
+     */
+    public SnapshotMercado obterSnapshot(long versaoConhecida) {
+        return service.getSnapshot(versaoConhecida);
+    }
+
     /**
      * Adiciona um listener para notificações de preço.
      */
@@ -77,6 +113,20 @@ public class BolsaValoresController {
         service.removerListener(listener);
     }
 
+    /**
+     * Adiciona um listener para suspensões e retomadas por volatilidade.
+     */
+    public void adicionarListenerSuspensao(SuspensaoNegociacaoListener listener) {
+        service.getControleVolatilidade().adicionarListener(listener);
+    }
+
+    /**
+     * Remove um listener de suspensões.
+     */
+    public void removerListenerSuspensao(SuspensaoNegociacaoListener listener) {
+        service.getControleVolatilidade().removerListener(listener);
+    }
+
     /**
      * Retorna o book de ofertas (para uso interno/controlado).
      */
@@ -85,10 +135,166 @@ public class BolsaValoresController {
     }
 
     /**
-     * Envia uma ordem para o book de ofertas.
+     * Ativa a replicação para um servidor standby.
+     * Ordens, cancelamentos e preços passam a ser publicados no replicador.
+     * Se o standby assumir como primário, este controller passa a recusar ordens e
+     * cancelamentos e a simulação de preços é parada.
+     */
+    public void setReplicador(ReplicadorPrimario replicador) {
+        replicador.setAoRebaixar(service::pararSimulacao);
+        synchronized (sequenciador) {
+            this.replicador = replicador;
+        }
+        service.adicionarListener(replicador);
+    }
+
+    /**
+     * Ativa a gravação do fluxo de eventos em arquivo, na mesma ordem da replicação.
+     */
+    public void setGravador(GravadorEventos gravador) {
+        synchronized (sequenciador) {
+            this.gravador = gravador;
+        }
+        service.adicionarListener(gravador);
+    }
+
+    /**
+     * Envia uma ordem para o book de ofertas, após o controle de risco pré-negociação.
+     * A ordem é replicada depois de receber o ID do book, para o standby usar o mesmo ID.
+     * Com replicação síncrona, a confirmação da réplica é aguardada fora do sequenciador.
+     * @return ID atribuído à ordem
+     * @throws model.OrdemRejeitadaException se a ordem violar algum limite de risco,
+     *         a ação estiver suspensa por volatilidade ou o standby tiver assumido
+     *         como primário
+     */
+    public long enviarOrdem(Ordem ordem) {
+        long ordemId;
+        long sequencia = 0;
+        synchronized (sequenciador) {
+            verificarPrimario();
+            if (!service.getControleVolatilidade().aceitaOrdens(ordem.getSimboloAcao())) {
+                throw new OrdemRejeitadaException("Negociação de " + ordem.getSimboloAcao() + " suspensa por volatilidade");
+            }
+            service.getControleRisco().aceitar(ordem);
+            ordemId = service.getBookDeOfertas().adicionarOrdem(ordem);
+            if (replicador != null) {
+                sequencia = replicador.publicarOrdem(ordem);
+            }
+            if (gravador != null) {
+                gravador.gravarOrdem(ordem);
+            }
+        }
+        if (!aguardarReplica(sequencia)) {
+            throw new OrdemRejeitadaException("Ordem não confirmada: o standby assumiu como primário");
+        }
+        return ordemId;
+    }
+
+    /**
+     * Cancela uma ordem pendente no book de ofertas, se pertencer ao investidor.
+     * Os limites de risco são liberados pelo próprio book (listener de cancelamento).
+     * @return true se a ordem foi cancelada
+     */
+    public boolean cancelarOrdem(long ordemId, String investidorId) {
+        boolean cancelada;
+        long sequencia = 0;
+        synchronized (sequenciador) {
+            if (replicador != null && replicador.isRebaixado()) return false;
+            cancelada = service.getBookDeOfertas().cancelarOrdem(ordemId, investidorId);
+            if (cancelada && replicador != null) {
+                sequencia = replicador.publicarCancelamento(ordemId);
+            }
+            if (cancelada && gravador != null) {
+                gravador.gravarCancelamento(ordemId);
+            }
+        }
+        return aguardarReplica(sequencia) && cancelada;
+    }
+
+    /**
+     * Recusa a operação se o standby assumiu como primário (evita dois books ativos).
+     */
+    private void verificarPrimario() {
+        if (replicador != null && replicador.isRebaixado()) {
+            throw new OrdemRejeitadaException("Servidor fora de operação: o standby assumiu como primário");
+        }
+    }
+
+    /**
+     * Aguarda a réplica confirmar o evento publicado (apenas na replicação síncrona).
+     * Chamado fora do sequenciador, para que eventos concorrentes sigam no mesmo lote.
+     * @param sequencia Sequência do evento; 0 se nada foi publicado
+     * @return false se o standby assumiu antes de confirmar
      */
-    public void enviarOrdem(Ordem ordem) {
-        service.getBookDeOfertas().adicionarOrdem(ordem);
+    private boolean aguardarReplica(long sequencia) {
+        return sequencia == 0 || replicador.aguardarConfirmacao(sequencia);
+    }
+
+    /**
+     * Abre o leilão de uma ação: as ordens recebidas se acumulam até o encerramento.
+     */
+    public void iniciarLeilao(String simboloAcao) {
+        long sequencia = 0;
+        synchronized (sequenciador) {
+            service.iniciarLeilao(simboloAcao);
+            if (replicador != null) {
+                sequencia = replicador.publicarInicioLeilao(simboloAcao);
+            }
+            if (gravador != null) {
+                gravador.gravarInicioLeilao(simboloAcao);
+            }
+        }
+        aguardarReplica(sequencia);
+    }
+
+    /**
+     * Encerra o leilão de uma ação e adota o preço de equilíbrio como preço da ação.
+     * O encerramento é replicado antes do novo preço, para o standby desempatar pelo mesmo preço de referência.
+     */
+    public ResultadoLeilao encerrarLeilao(String simboloAcao) {
+        ResultadoLeilao resultado;
+        long sequencia = 0;
+        synchronized (sequenciador) {
+            resultado = service.encerrarLeilao(simboloAcao);
+            if (replicador != null) {
+                sequencia = replicador.publicarFimLeilao(simboloAcao);
+            }
+            if (gravador != null) {
+                gravador.gravarFimLeilao(simboloAcao);
+            }
+            if (resultado.temNegocio()) {
+                service.atualizarPreco(simboloAcao, resultado.getPreco());
+            }
+        }
+        aguardarReplica(sequencia);
+        return resultado;
+    }
+
+    /**
+     * Aplica um evento recebido do primário (usado pela réplica standby).
+     */
+    public void aplicarEventoReplicado(EventoReplicacao evento) {
+        synchronized (sequenciador) {
+            switch (evento.getTipo()) {
+                case ORDEM:
+                    service.getControleRisco().registrarOrdem(evento.getOrdem());
+                    service.getBookDeOfertas().adicionarOrdemReplicada(evento.getOrdem());
+                    break;
+                case CANCELAMENTO:
+                    service.getBookDeOfertas().cancelarOrdem(evento.getOrdemId());
+                    break;
+                case PRECO:
+                    service.atualizarPreco(evento.getSimboloAcao(), evento.getPreco());
+                    break;
+                case INICIO_LEILAO:
+                    service.iniciarLeilao(evento.getSimboloAcao());
+                    break;
+                case FIM_LEILAO:
+                    // O preço de equilíbrio chega em seguida como evento PRECO
+                    service.encerrarLeilao(evento.getSimboloAcao());
+                    break;
+            }
+        }
     }
 
     /**
@@ -104,4 +310,49 @@ public class BolsaValoresController {
     public List<Ordem> listarOrdensVenda(String simboloAcao) {
         return service.getBookDeOfertas().getOrdensVenda(simboloAcao);
     }
+
+    /**
+     * Lista uma página das ordens de um lado do book, na prioridade de execução.
+     */
+    public List<Ordem> listarOrdens(String simboloAcao, Ordem.TipoOrdem tipo, int inicio, int limite) {
+        return service.getBookDeOfertas().getOrdens(simboloAcao, tipo, inicio, limite);
+    }
+
+    /**
+     * Consulta os melhores níveis de preço agregados de um lado do book.
+     */
+    public List<NivelBook> consultarNiveis(String simboloAcao, Ordem.TipoOrdem tipo, int profundidade) {
+        return service.getBookDeOfertas().getNiveis(simboloAcao, tipo, profundidade);
+    }
+
+    /**
+     * Consulta a fase de negociação de uma ação (contínua, em leilão ou suspensa).
+     */
+    public FaseNegociacao consultarFase(String simboloAcao) {
+        if (!service.getControleVolatilidade().aceitaOrdens(simboloAcao)) {
+            return FaseNegociacao.SUSPENSA;
+        }
+        return service.getBookDeOfertas().isEmLeilao(simboloAcao) ? FaseNegociacao.LEILAO : FaseNegociacao.CONTINUA;
+    }
+
+    /**
+     * Consulta a melhor oferta de compra e de venda de uma ação.
+     */
+    public Cotacao consultarCotacao(String simboloAcao) {
+        return service.getBookDeOfertas().getCotacao(simboloAcao);
+    }
+
+    /**
+     * Consulta a carteira de um investidor marcada a mercado.
+     */
+    public Carteira consultarCarteira(String investidorId) {
+        return service.getCarteiraService().consultarCarteira(investidorId);
+    }
+
+    /**
+     * Consulta a posição de um investidor em uma ação.
+     */
+    public PosicaoCarteira consultarPosicao(String investidorId, String simboloAcao) {
+        return service.getCarteiraService().consultarPosicao(investidorId, simboloAcao);
+    }
 }
\ No newline at end of file
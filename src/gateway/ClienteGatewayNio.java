@@ -0,0 +1,128 @@
+/*
+ * Cliente do gateway binário de ordens
+ *
+ * Conexão TCP bloqueante com buffers diretos reutilizados entre chamadas.
+ * Cada envio aguarda a confirmação correspondente; atualizações de preço
+ * recebidas no meio do caminho são repassadas ao listener informado.
+ */
+package gateway;
+
+import model.Ordem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import interfaces.PrecoAcaoListener;
+
+public class ClienteGatewayNio implements Closeable {
+    private final SocketChannel canal;
+    private final ByteBuffer saida = ByteBuffer.allocateDirect(ProtocoloBinario.TAMANHO_NOVA_ORDEM);
+    private final ByteBuffer entrada = ByteBuffer.allocateDirect(64 * 1024);
+    private final PrecoAcaoListener listenerPrecos;
+    private long proximoClOrdId = 1;
+    private long ultimoOrdemId;
+
+    /**
+     * Conecta ao gateway.
+     * @param host Endereço do servidor
+     * @param porta Porta do gateway
+     * @param listenerPrecos Recebe as atualizações de preço (pode ser null)
+     */
+    public ClienteGatewayNio(String host, int porta, PrecoAcaoListener listenerPrecos) throws IOException {
+        this.canal = SocketChannel.open(new InetSocketAddress(host, porta));
+        this.canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.listenerPrecos = listenerPrecos;
+        this.entrada.flip();
+    }
+
+    /**
+     * Envia uma ordem e aguarda a confirmação do servidor.
+     * @return true se a ordem foi aceita
+     */
+    public boolean enviarOrdem(String investidorId, String simboloAcao, Ordem.TipoOrdem tipo, double preco, int quantidade) throws IOException {
+        long clOrdId = proximoClOrdId++;
+        saida.clear();
+        ProtocoloBinario.escreverNovaOrdem(saida, clOrdId, investidorId, simboloAcao, tipo, preco, quantidade);
+        return enviarEAguardar(clOrdId);
+    }
+
+    /**
+     * Cancela uma ordem pelo ID atribuído pelo servidor.
+     * @param investidorId Dono da ordem (o servidor recusa o cancelamento de outro investidor)
+     * @return true se a ordem foi cancelada
+     */
+    public boolean cancelarOrdem(long ordemId, String investidorId) throws IOException {
+        long clOrdId = proximoClOrdId++;
+        saida.clear();
+        ProtocoloBinario.escreverCancelamento(saida, clOrdId, ordemId, investidorId);
+        return enviarEAguardar(clOrdId);
+    }
+
+    /**
+     * Retorna o ID atribuído pelo servidor à última ordem confirmada.
+     */
+    public long getUltimoOrdemId() {
+        return ultimoOrdemId;
+    }
+
+    private boolean enviarEAguardar(long clOrdId) throws IOException {
+        saida.flip();
+        while (saida.hasRemaining()) {
+            canal.write(saida);
+        }
+        while (true) {
+            byte tipo = lerMensagem();
+            if (tipo == ProtocoloBinario.CONFIRMACAO) {
+                byte status = entrada.get();
+                long confirmado = entrada.getLong();
+                long ordemId = entrada.getLong();
+                if (confirmado == clOrdId) {
+                    ultimoOrdemId = ordemId;
+                    return status == ProtocoloBinario.STATUS_ACEITA;
+                }
+            } else if (tipo == ProtocoloBinario.PRECO) {
+                String simbolo = ProtocoloBinario.lerTexto(entrada, ProtocoloBinario.TAMANHO_SIMBOLO);
+                double preco = entrada.getDouble();
+                if (listenerPrecos != null) {
+                    // O preço anterior não trafega no protocolo
+                    listenerPrecos.atualizacaoPreco(simbolo, Double.NaN, preco);
+                }
+            } else {
+                throw new IOException("Mensagem inesperada do gateway: " + tipo);
+            }
+        }
+    }
+
+    /**
+     * Garante uma mensagem completa no buffer e consome o byte de tipo.
+     */
+    private byte lerMensagem() throws IOException {
+        preencher(1);
+        int tamanho = ProtocoloBinario.tamanhoMensagem(entrada.get(entrada.position()));
+        if (tamanho < 0) {
+            throw new IOException("Tipo de mensagem desconhecido");
+        }
+        preencher(tamanho);
+        return entrada.get();
+    }
+
+    private void preencher(int minimo) throws IOException {
+        while (entrada.remaining() < minimo) {
+            entrada.compact();
+            int lidos = canal.read(entrada);
+            entrada.flip();
+            if (lidos < 0) {
+                throw new IOException("Conexão com o gateway encerrada");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
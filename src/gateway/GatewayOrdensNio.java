@@ -0,0 +1,244 @@
+/*
+ * Gateway de ordens e market data sobre NIO
+ *
+ * Alternativa de baixa latência ao RMI para entrada de ordens: uma única thread
+ * com Selector atende todas as conexões TCP usando o protocolo binário de layout fixo
+ * e ByteBuffers diretos. As ordens são entregues ao mesmo BolsaValoresController
+ * usado pelo RMI, que continua servindo consultas e administração.
+ *
+ * Atualizações de preço são difundidas para todas as sessões conectadas.
+ */
+package gateway;
+
+import controller.BolsaValoresController;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import interfaces.PrecoAcaoListener;
+
+public class GatewayOrdensNio implements PrecoAcaoListener {
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private final ProcessadorComandos processador;
+    private final int porta;
+    private final Queue<PrecoPendente> precosPendentes = new ConcurrentLinkedQueue<>();
+    // Volátil: preços podem chegar de outras threads antes de iniciar()
+    private volatile Selector selector;
+    private Thread thread;
+    private volatile boolean ativo = true;
+
+    /**
+     * Cria o gateway.
+     * @param controller Controller que recebe as ordens
+     * @param porta Porta TCP de escuta
+     */
+    public GatewayOrdensNio(BolsaValoresController controller, int porta) {
+        this.processador = new ProcessadorComandos(controller);
+        this.porta = porta;
+    }
+
+    /**
+     * Abre a porta e inicia a thread do selector.
+     */
+    public void iniciar() throws IOException {
+        selector = Selector.open();
+        ServerSocketChannel servidor = ServerSocketChannel.open();
+        servidor.bind(new InetSocketAddress(porta));
+        servidor.configureBlocking(false);
+        servidor.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(new LacoSelector(servidor), "gateway-nio");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Encerra o laço do selector e aguarda o fechamento das conexões.
+     * Comandos já lidos no ciclo corrente do selector são processados antes.
+     */
+    public void parar() {
+        ativo = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Enfileira a atualização de preço para a thread do selector difundir.
+     * Antes de iniciar() o preço apenas fica na fila.
+     */
+    @Override
+    public void atualizacaoPreco(String simboloAcao, double precoAntigo, double novoPreco) {
+        precosPendentes.add(new PrecoPendente(simboloAcao, novoPreco));
+        Selector atual = selector;
+        if (atual != null) {
+            atual.wakeup();
+        }
+    }
+
+    /**
+     * Estado de uma conexão: buffers diretos de entrada e saída.
+     */
+    private static class Sessao {
+        final ByteBuffer entrada = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+        final ByteBuffer saida = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+    }
+
+    private static class PrecoPendente {
+        final String simboloAcao;
+        final double preco;
+
+        PrecoPendente(String simboloAcao, double preco) {
+            this.simboloAcao = simboloAcao;
+            this.preco = preco;
+        }
+    }
+
+    /**
+     * Thread interna que atende as conexões do gateway.
+     */
+    private class LacoSelector implements Runnable {
+        private final ServerSocketChannel servidor;
+
+        LacoSelector(ServerSocketChannel servidor) {
+            this.servidor = servidor;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (ativo) {
+                    selector.select();
+                    Iterator<SelectionKey> chaves = selector.selectedKeys().iterator();
+                    while (chaves.hasNext()) {
+                        SelectionKey chave = chaves.next();
+                        chaves.remove();
+                        try {
+                            if (chave.isAcceptable()) {
+                                aceitar();
+                            } else {
+                                if (chave.isReadable()) ler(chave);
+                                if (chave.isValid() && chave.isWritable()) {
+                                    descarregar(chave);
+                                    processarEntrada(chave);
+                                }
+                            }
+                        } catch (IOException e) {
+                            fechar(chave);
+                        }
+                    }
+                    difundirPrecos();
+                }
+            } catch (IOException e) {
+                System.err.println("[GATEWAY] Erro no selector: " + e.getMessage());
+            } finally {
+                for (SelectionKey chave : selector.keys()) {
+                    fechar(chave);
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignorada) {
+                    // Encerrando
+                }
+            }
+        }
+
+        private void aceitar() throws IOException {
+            SocketChannel canal = servidor.accept();
+            if (canal == null) return;
+            canal.configureBlocking(false);
+            canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            canal.register(selector, SelectionKey.OP_READ, new Sessao());
+        }
+
+        private void ler(SelectionKey chave) throws IOException {
+            SocketChannel canal = (SocketChannel) chave.channel();
+            Sessao sessao = (Sessao) chave.attachment();
+            if (canal.read(sessao.entrada) < 0) {
+                fechar(chave);
+                return;
+            }
+            processarEntrada(chave);
+        }
+
+        /**
+         * Processa todas as mensagens completas do buffer de entrada.
+         * Para quando não houver espaço para a confirmação: o restante é processado
+         * depois que o cliente consumir a saída.
+         */
+        private void processarEntrada(SelectionKey chave) throws IOException {
+            Sessao sessao = (Sessao) chave.attachment();
+            ByteBuffer entrada = sessao.entrada;
+            entrada.flip();
+            while (entrada.hasRemaining()) {
+                int tamanho = ProtocoloBinario.tamanhoMensagem(entrada.get(entrada.position()));
+                if (tamanho < 0) {
+                    throw new IOException("Tipo de mensagem desconhecido");
+                }
+                if (entrada.remaining() < tamanho) break;
+                if (sessao.saida.remaining() < ProtocoloBinario.TAMANHO_CONFIRMACAO) break;
+                processador.processar(entrada, sessao.saida);
+            }
+            entrada.compact();
+            descarregar(chave);
+        }
+
+        /**
+         * Escreve o que houver no buffer de saída. Se sobrar, troca o interesse em leitura
+         * pelo de escrita: o cliente que não consome as confirmações deixa de ser lido
+         * (a contrapressão chega a ele pelo TCP) em vez de o selector girar com leituras vazias.
+         */
+        private void descarregar(SelectionKey chave) throws IOException {
+            SocketChannel canal = (SocketChannel) chave.channel();
+            Sessao sessao = (Sessao) chave.attachment();
+            sessao.saida.flip();
+            canal.write(sessao.saida);
+            boolean pendente = sessao.saida.hasRemaining();
+            sessao.saida.compact();
+            chave.interestOps(pendente ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+
+        private void difundirPrecos() {
+            PrecoPendente preco;
+            while ((preco = precosPendentes.poll()) != null) {
+                for (SelectionKey chave : selector.keys()) {
+                    if (!(chave.attachment() instanceof Sessao) || !chave.isValid()) continue;
+                    Sessao sessao = (Sessao) chave.attachment();
+                    // Cliente lento: descarta market data em vez de bloquear o gateway
+                    if (sessao.saida.remaining() < ProtocoloBinario.TAMANHO_PRECO) continue;
+                    ProtocoloBinario.escreverPreco(sessao.saida, preco.simboloAcao, preco.preco);
+                    try {
+                        descarregar(chave);
+                    } catch (IOException e) {
+                        fechar(chave);
+                    }
+                }
+            }
+        }
+
+        private void fechar(SelectionKey chave) {
+            chave.cancel();
+            try {
+                chave.channel().close();
+            } catch (IOException ignorada) {
+                // Conexão já encerrada
+            }
+        }
+    }
+}
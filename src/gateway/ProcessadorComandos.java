@@ -0,0 +1,60 @@
+/*
+ * Processador de comandos do protocolo binário
+ *
+ * Decodifica NOVA_ORDEM e CANCELAMENTO, entrega ao controller e escreve a
+ * CONFIRMACAO correspondente. Compartilhado pelos transportes que falam o
+ * protocolo binário (gateway NIO e IPC por memória compartilhada).
+ * Não é thread-safe: cada transporte usa uma instância por thread.
+ */
+package gateway;
+
+import controller.BolsaValoresController;
+import model.Ordem;
+
+import java.nio.ByteBuffer;
+
+public class ProcessadorComandos {
+    private final BolsaValoresController controller;
+    private final long[] clOrdId = new long[1];
+
+    public ProcessadorComandos(BolsaValoresController controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Processa uma mensagem completa a partir da posição atual de {@code entrada}
+     * e escreve a confirmação em {@code saida}, que deve ter ao menos TAMANHO_CONFIRMACAO livres.
+     * Mensagens de saída enviadas pelo cliente são descartadas; com tipo desconhecido
+     * apenas o byte de tipo é consumido (o tamanho do corpo não é conhecido).
+     * @return true se uma confirmação foi escrita em {@code saida}
+     */
+    public boolean processar(ByteBuffer entrada, ByteBuffer saida) {
+        byte tipo = entrada.get();
+        if (tipo == ProtocoloBinario.NOVA_ORDEM) {
+            Ordem ordem = ProtocoloBinario.lerNovaOrdem(entrada, clOrdId);
+            byte status = ProtocoloBinario.STATUS_ACEITA;
+            long ordemId = 0;
+            try {
+                ordemId = controller.enviarOrdem(ordem);
+            } catch (RuntimeException e) {
+                status = ProtocoloBinario.STATUS_REJEITADA;
+            }
+            ProtocoloBinario.escreverConfirmacao(saida, status, clOrdId[0], ordemId);
+            return true;
+        } else if (tipo == ProtocoloBinario.CANCELAMENTO) {
+            long clOrdIdCancelamento = entrada.getLong();
+            long ordemId = entrada.getLong();
+            String investidorId = ProtocoloBinario.lerTexto(entrada, ProtocoloBinario.TAMANHO_INVESTIDOR);
+            boolean cancelada = controller.cancelarOrdem(ordemId, investidorId);
+            ProtocoloBinario.escreverConfirmacao(saida,
+                cancelada ? ProtocoloBinario.STATUS_ACEITA : ProtocoloBinario.STATUS_REJEITADA, clOrdIdCancelamento, ordemId);
+            return true;
+        }
+        int tamanho = ProtocoloBinario.tamanhoMensagem(tipo);
+        if (tamanho > 0) {
+            // Mensagens de saída não são aceitas do cliente: descarta o corpo
+            entrada.position(entrada.position() + tamanho - 1);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Protocolo binário do gateway de ordens
+ *
+ * Mensagens de layout fixo (big-endian), identificadas pelo primeiro byte.
+ * Cada tipo tem tamanho constante, então o leitor sabe quantos bytes esperar
+ * sem delimitadores nem cabeçalho de comprimento.
+ *
+ *   NOVA_ORDEM   tipo(1) lado(1) simbolo(8) investidor(16) clOrdId(8) preco(8) quantidade(4)
+ *   CANCELAMENTO tipo(1) clOrdId(8) ordemId(8) investidor(16)
+ *   CONFIRMACAO  tipo(1) status(1) clOrdId(8) ordemId(8)
+ *   PRECO        tipo(1) simbolo(8) preco(8)
+ *
+ * Textos são ASCII completados com zeros à direita. O ordemId é o ID sequencial
+ * atribuído pelo book (0 quando a ordem é rejeitada); o cancelamento só é aceito
+ * para o investidor dono da ordem.
+ */
+package gateway;
+
+import model.Ordem;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class ProtocoloBinario {
+    public static final byte NOVA_ORDEM = 1;
+    public static final byte CANCELAMENTO = 2;
+    public static final byte CONFIRMACAO = 3;
+    public static final byte PRECO = 4;
+
+    public static final byte LADO_COMPRA = 0;
+    public static final byte LADO_VENDA = 1;
+
+    public static final byte STATUS_ACEITA = 0;
+    public static final byte STATUS_REJEITADA = 1;
+
+    public static final int TAMANHO_SIMBOLO = 8;
+    public static final int TAMANHO_INVESTIDOR = 16;
+
+    public static final int TAMANHO_NOVA_ORDEM = 1 + 1 + TAMANHO_SIMBOLO + TAMANHO_INVESTIDOR + 8 + 8 + 4;
+    public static final int TAMANHO_CANCELAMENTO = 1 + 8 + 8 + TAMANHO_INVESTIDOR;
+    public static final int TAMANHO_CONFIRMACAO = 1 + 1 + 8 + 8;
+    public static final int TAMANHO_PRECO = 1 + TAMANHO_SIMBOLO + 8;
+
+    private ProtocoloBinario() {
+    }
+
+    /**
+     * Retorna o tamanho total da mensagem pelo seu tipo, ou -1 se o tipo for desconhecido.
+     */
+    public static int tamanhoMensagem(byte tipo) {
+        switch (tipo) {
+            case NOVA_ORDEM: return TAMANHO_NOVA_ORDEM;
+            case CANCELAMENTO: return TAMANHO_CANCELAMENTO;
+            case CONFIRMACAO: return TAMANHO_CONFIRMACAO;
+            case PRECO: return TAMANHO_PRECO;
+            default: return -1;
+        }
+    }
+
+    public static void escreverNovaOrdem(ByteBuffer buffer, long clOrdId, String investidorId, String simboloAcao,
+                                         Ordem.TipoOrdem tipo, double preco, int quantidade) {
+        buffer.put(NOVA_ORDEM);
+        buffer.put(tipo == Ordem.TipoOrdem.COMPRA ? LADO_COMPRA : LADO_VENDA);
+        escreverTexto(buffer, simboloAcao, TAMANHO_SIMBOLO);
+        escreverTexto(buffer, investidorId, TAMANHO_INVESTIDOR);
+        buffer.putLong(clOrdId);
+        buffer.putDouble(preco);
+        buffer.putInt(quantidade);
+    }
+
+    /**
+     * Lê o corpo de uma NOVA_ORDEM (o byte de tipo já foi consumido) e cria a Ordem correspondente.
+     * O clOrdId é devolvido em {@code clOrdIdSaida[0]}.
+     */
+    public static Ordem lerNovaOrdem(ByteBuffer buffer, long[] clOrdIdSaida) {
+        Ordem.TipoOrdem tipo = buffer.get() == LADO_COMPRA ? Ordem.TipoOrdem.COMPRA : Ordem.TipoOrdem.VENDA;
+        String simbolo = lerTexto(buffer, TAMANHO_SIMBOLO);
+        String investidor = lerTexto(buffer, TAMANHO_INVESTIDOR);
+        clOrdIdSaida[0] = buffer.getLong();
+        double preco = buffer.getDouble();
+        int quantidade = buffer.getInt();
+        return new Ordem(investidor, simbolo, tipo, preco, quantidade);
+    }
+
+    public static void escreverCancelamento(ByteBuffer buffer, long clOrdId, long ordemId, String investidorId) {
+        buffer.put(CANCELAMENTO);
+        buffer.putLong(clOrdId);
+        buffer.putLong(ordemId);
+        escreverTexto(buffer, investidorId, TAMANHO_INVESTIDOR);
+    }
+
+    public static void escreverConfirmacao(ByteBuffer buffer, byte status, long clOrdId, long ordemId) {
+        buffer.put(CONFIRMACAO);
+        buffer.put(status);
+        buffer.putLong(clOrdId);
+        buffer.putLong(ordemId);
+    }
+
+    public static void escreverPreco(ByteBuffer buffer, String simboloAcao, double preco) {
+        buffer.put(PRECO);
+        escreverTexto(buffer, simboloAcao, TAMANHO_SIMBOLO);
+        buffer.putDouble(preco);
+    }
+
+    /**
+     * Escreve um texto ASCII em um campo de tamanho fixo, completando com zeros.
+     */
+    public static void escreverTexto(ByteBuffer buffer, String texto, int tamanho) {
+        int n = texto == null ? 0 : Math.min(texto.length(), tamanho);
+        for (int i = 0; i < n; i++) {
+            buffer.put((byte) texto.charAt(i));
+        }
+        for (int i = n; i < tamanho; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Lê um campo de texto de tamanho fixo, descartando os zeros finais.
+     */
+    public static String lerTexto(ByteBuffer buffer, int tamanho) {
+        byte[] bytes = new byte[tamanho];
+        buffer.get(bytes);
+        int n = tamanho;
+        while (n > 0 && bytes[n - 1] == 0) n--;
+        return new String(bytes, 0, n, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,5 @@
+package interfaces;
+
+public interface BandaPrecoListener {
+    void bandaViolada(String simboloAcao, double preco);
+}
@@ -0,0 +1,7 @@
+package interfaces;
+
+import model.Ordem;
+
+public interface CancelamentoOrdemListener {
+    void ordemCancelada(String simboloAcao, String investidorId, Ordem.TipoOrdem tipo, double precoOrdem, int quantidadeCancelada);
+}
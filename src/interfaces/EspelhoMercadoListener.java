@@ -0,0 +1,7 @@
+package interfaces;
+
+import model.AtualizacaoMercado;
+
+public interface EspelhoMercadoListener {
+    void mercadoAtualizado(AtualizacaoMercado anterior, AtualizacaoMercado atual);
+}
@@ -0,0 +1,7 @@
+package interfaces;
+
+import model.Ordem;
+
+public interface ExecucaoOrdemListener {
+    void ordemExecutada(String simboloAcao, String investidorId, Ordem.TipoOrdem tipo, double precoOrdem, double precoNegocio, int quantidade);
+}
\ No newline at end of file
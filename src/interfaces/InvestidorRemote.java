@@ -1,10 +1,15 @@
 package interfaces;
 
+import model.AtualizacaoMercado;
+
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 
 public interface InvestidorRemote extends Remote {
     void notificarMudancaPreco(String simboloAcao, double precoAntigo, double novoPreco) throws RemoteException;
     void notificarAlteracaoBook(String simboloAcao) throws RemoteException;
+    void atualizarMercado(AtualizacaoMercado atualizacao) throws RemoteException;
+    void notificarSuspensao(String simboloAcao, double preco, boolean leilao) throws RemoteException;
+    void notificarRetomada(String simboloAcao) throws RemoteException;
     String getId() throws RemoteException;
 }
\ No newline at end of file
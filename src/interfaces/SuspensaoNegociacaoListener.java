@@ -0,0 +1,6 @@
+package interfaces;
+
+public interface SuspensaoNegociacaoListener {
+    void negociacaoSuspensa(String simboloAcao, double preco, boolean leilao);
+    void negociacaoRetomada(String simboloAcao);
+}
@@ -0,0 +1,131 @@
+/*
+ * Buffer circular em arquivo mapeado em memória
+ *
+ * Fila de um produtor e um consumidor (SPSC) compartilhada entre processos
+ * da mesma máquina, no estilo do IPC do Aeron/Chronicle Queue. Depois de mapeado,
+ * enviar e receber mensagens não faz chamadas de sistema: os contadores são
+ * publicados com semântica release/acquire diretamente na memória compartilhada.
+ *
+ * Layout do arquivo:
+ *   [0..8)     cabeça: quantidade de mensagens consumidas (escrita só pelo consumidor)
+ *   [64..72)   cauda: quantidade de mensagens publicadas (escrita só pelo produtor)
+ *   [128..)    slots de TAMANHO_SLOT bytes, cada um com uma mensagem do protocolo binário
+ *
+ * Cabeça e cauda ficam em linhas de cache diferentes para evitar false sharing.
+ * Cada instância deve ser usada em um único papel (produtor ou consumidor).
+ */
+package ipc;
+
+import gateway.ProtocoloBinario;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+public class AnelMemoriaMapeada implements Closeable {
+    public static final int TAMANHO_SLOT = 64;
+    private static final int OFFSET_CABECA = 0;
+    private static final int OFFSET_CAUDA = 64;
+    private static final int TAMANHO_CABECALHO = 128;
+    private static final VarHandle CONTADOR =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    static {
+        if (ProtocoloBinario.TAMANHO_NOVA_ORDEM > TAMANHO_SLOT || ProtocoloBinario.TAMANHO_CONFIRMACAO > TAMANHO_SLOT) {
+            throw new IllegalStateException("Mensagem do protocolo maior que o slot do anel");
+        }
+    }
+
+    private final RandomAccessFile arquivo;
+    private final MappedByteBuffer memoria;
+    // Visão com posição própria, usada para ler/escrever o slot corrente
+    private final ByteBuffer slot;
+    private final int capacidade;
+    private final int mascara;
+    // Cópias locais para não reler a memória compartilhada a cada operação
+    private long cabecaLocal;
+    private long caudaLocal;
+    private long limiteConhecido;
+
+    /**
+     * Mapeia (criando se necessário) um anel com a capacidade indicada.
+     * @param caminho Arquivo do anel
+     * @param capacidade Número de slots (potência de dois)
+     */
+    public AnelMemoriaMapeada(Path caminho, int capacidade) throws IOException {
+        if (Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("Capacidade deve ser potência de dois: " + capacidade);
+        }
+        this.capacidade = capacidade;
+        this.mascara = capacidade - 1;
+        long tamanho = TAMANHO_CABECALHO + (long) capacidade * TAMANHO_SLOT;
+        this.arquivo = new RandomAccessFile(caminho.toFile(), "rw");
+        if (arquivo.length() < tamanho) {
+            arquivo.setLength(tamanho);
+        }
+        this.memoria = arquivo.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, tamanho);
+        this.slot = memoria.duplicate();
+        this.cabecaLocal = (long) CONTADOR.getAcquire(memoria, OFFSET_CABECA);
+        this.caudaLocal = (long) CONTADOR.getAcquire(memoria, OFFSET_CAUDA);
+    }
+
+    /**
+     * Lado produtor: reserva o próximo slot para escrita.
+     * @return Buffer posicionado no início do slot, ou null se o anel estiver cheio
+     */
+    public ByteBuffer reservar() {
+        if (caudaLocal - limiteConhecido >= capacidade) {
+            limiteConhecido = (long) CONTADOR.getAcquire(memoria, OFFSET_CABECA);
+            if (caudaLocal - limiteConhecido >= capacidade) {
+                return null;
+            }
+        }
+        int inicio = TAMANHO_CABECALHO + (int) (caudaLocal & mascara) * TAMANHO_SLOT;
+        slot.limit(inicio + TAMANHO_SLOT).position(inicio);
+        return slot;
+    }
+
+    /**
+     * Lado produtor: torna visível ao consumidor o slot escrito após {@link #reservar()}.
+     */
+    public void publicar() {
+        caudaLocal++;
+        CONTADOR.setRelease(memoria, OFFSET_CAUDA, caudaLocal);
+    }
+
+    /**
+     * Lado consumidor: retorna a próxima mensagem disponível.
+     * @return Buffer posicionado no início da mensagem, ou null se não houver mensagens
+     */
+    public ByteBuffer proxima() {
+        if (cabecaLocal >= limiteConhecido) {
+            limiteConhecido = (long) CONTADOR.getAcquire(memoria, OFFSET_CAUDA);
+            if (cabecaLocal >= limiteConhecido) {
+                return null;
+            }
+        }
+        int inicio = TAMANHO_CABECALHO + (int) (cabecaLocal & mascara) * TAMANHO_SLOT;
+        slot.limit(inicio + TAMANHO_SLOT).position(inicio);
+        return slot;
+    }
+
+    /**
+     * Lado consumidor: libera o slot lido por {@link #proxima()} para o produtor reutilizar.
+     */
+    public void liberar() {
+        cabecaLocal++;
+        CONTADOR.setRelease(memoria, OFFSET_CABECA, cabecaLocal);
+    }
+
+    @Override
+    public void close() throws IOException {
+        arquivo.close();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Cliente do transporte IPC por memória compartilhada
+ *
+ * Para estratégias que rodam na mesma máquina do servidor. Cria o par de anéis
+ * no diretório de IPC e troca mensagens do protocolo binário sem sockets:
+ * enviar uma ordem é escrever em memória mapeada e aguardar a confirmação girando.
+ * Se o servidor não responder no prazo (parado, ou comando descartado), o envio
+ * falha com IOException em vez de girar para sempre.
+ */
+package ipc;
+
+import gateway.ProtocoloBinario;
+import model.Ordem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import interfaces.PrecoAcaoListener;
+
+public class ClienteIpc implements Closeable {
+    // Tempo girando sem chamadas ao sistema antes de ceder a CPU: cobre com folga a ida e
+    // volta de uma ordem pelo controller. Com um único processador girar só atrasa o
+    // servidor, então o cliente cede desde o início
+    private static final long GIRO_NANOS = Runtime.getRuntime().availableProcessors() > 1 ? 200_000L : 0;
+    // Giros entre leituras do relógio durante a fase de giro
+    private static final int GIROS_POR_LEITURA_RELOGIO = 256;
+    public static final long PRAZO_RESPOSTA_PADRAO_MS = 5000;
+
+    private final Path arquivoComandos;
+    private final Path arquivoMercado;
+    private final AnelMemoriaMapeada comandos;
+    private final AnelMemoriaMapeada mercado;
+    private final PrecoAcaoListener listenerPrecos;
+    private final long prazoRespostaMs;
+    private long proximoClOrdId = 1;
+    private long ultimoOrdemId;
+    // Espera em andamento (o cliente é usado por uma única thread)
+    private long inicioEspera;
+    private int girosEspera;
+
+    /**
+     * Cria os anéis do cliente no diretório de IPC do servidor.
+     * @param diretorio Diretório de IPC (ver TransporteIpcServidor.diretorioPadrao())
+     * @param clienteId Identificador único do cliente (nome dos arquivos)
+     * @param listenerPrecos Recebe as atualizações de preço (pode ser null)
+     */
+    public ClienteIpc(Path diretorio, String clienteId, PrecoAcaoListener listenerPrecos) throws IOException {
+        this(diretorio, clienteId, listenerPrecos, PRAZO_RESPOSTA_PADRAO_MS);
+    }
+
+    /**
+     * Cria os anéis do cliente com um prazo de resposta do servidor diferente do padrão.
+     * @param prazoRespostaMs Tempo máximo de espera por espaço no anel e pela confirmação
+     */
+    public ClienteIpc(Path diretorio, String clienteId, PrecoAcaoListener listenerPrecos, long prazoRespostaMs) throws IOException {
+        this.prazoRespostaMs = prazoRespostaMs;
+        Files.createDirectories(diretorio);
+        this.arquivoMercado = diretorio.resolve(clienteId + TransporteIpcServidor.SUFIXO_MERCADO);
+        this.arquivoComandos = diretorio.resolve(clienteId + TransporteIpcServidor.SUFIXO_COMANDOS);
+        Files.deleteIfExists(arquivoMercado);
+        Files.deleteIfExists(arquivoComandos);
+        // O anel de comandos é criado por último: é ele que o servidor procura
+        this.mercado = new AnelMemoriaMapeada(arquivoMercado, TransporteIpcServidor.CAPACIDADE_ANEL);
+        this.comandos = new AnelMemoriaMapeada(arquivoComandos, TransporteIpcServidor.CAPACIDADE_ANEL);
+        this.listenerPrecos = listenerPrecos;
+    }
+
+    /**
+     * Envia uma ordem e aguarda a confirmação do servidor.
+     * @return true se a ordem foi aceita
+     * @throws IOException se o servidor não responder no prazo
+     */
+    public boolean enviarOrdem(String investidorId, String simboloAcao, Ordem.TipoOrdem tipo, double preco, int quantidade) throws IOException {
+        long clOrdId = proximoClOrdId++;
+        ByteBuffer slot = reservarComando();
+        ProtocoloBinario.escreverNovaOrdem(slot, clOrdId, investidorId, simboloAcao, tipo, preco, quantidade);
+        comandos.publicar();
+        return aguardarConfirmacao(clOrdId);
+    }
+
+    /**
+     * Cancela uma ordem pelo ID atribuído pelo servidor.
+     * @param investidorId Dono da ordem (o servidor recusa o cancelamento de outro investidor)
+     * @return true se a ordem foi cancelada
+     * @throws IOException se o servidor não responder no prazo
+     */
+    public boolean cancelarOrdem(long ordemId, String investidorId) throws IOException {
+        long clOrdId = proximoClOrdId++;
+        ByteBuffer slot = reservarComando();
+        ProtocoloBinario.escreverCancelamento(slot, clOrdId, ordemId, investidorId);
+        comandos.publicar();
+        return aguardarConfirmacao(clOrdId);
+    }
+
+    /**
+     * Entrega ao listener as atualizações de preço já recebidas, sem bloquear.
+     * @return Quantidade de mensagens consumidas
+     */
+    public int lerMercado() {
+        int lidas = 0;
+        ByteBuffer mensagem;
+        while ((mensagem = mercado.proxima()) != null) {
+            consumir(mensagem);
+            lidas++;
+        }
+        return lidas;
+    }
+
+    /**
+     * Retorna o ID atribuído pelo servidor à última ordem confirmada.
+     */
+    public long getUltimoOrdemId() {
+        return ultimoOrdemId;
+    }
+
+    private ByteBuffer reservarComando() throws IOException {
+        ByteBuffer slot;
+        iniciarEspera();
+        while ((slot = comandos.reservar()) == null) {
+            esperar();
+        }
+        return slot;
+    }
+
+    private boolean aguardarConfirmacao(long clOrdId) throws IOException {
+        iniciarEspera();
+        while (true) {
+            ByteBuffer mensagem = mercado.proxima();
+            if (mensagem == null) {
+                esperar();
+                continue;
+            }
+            if (mensagem.get(mensagem.position()) == ProtocoloBinario.CONFIRMACAO) {
+                mensagem.get();
+                byte status = mensagem.get();
+                long confirmado = mensagem.getLong();
+                long ordemId = mensagem.getLong();
+                mercado.liberar();
+                if (confirmado == clOrdId) {
+                    ultimoOrdemId = ordemId;
+                    return status == ProtocoloBinario.STATUS_ACEITA;
+                }
+            } else {
+                consumir(mensagem);
+            }
+        }
+    }
+
+    private void iniciarEspera() {
+        inicioEspera = System.nanoTime();
+        girosEspera = 0;
+    }
+
+    /**
+     * Gira por até GIRO_NANOS sem chamadas ao sistema (o relógio é lido a cada
+     * GIROS_POR_LEITURA_RELOGIO giros); depois cede a CPU a cada volta, até o prazo de resposta.
+     */
+    private void esperar() throws IOException {
+        if (GIRO_NANOS > 0 && ++girosEspera < GIROS_POR_LEITURA_RELOGIO) {
+            Thread.onSpinWait();
+            return;
+        }
+        long decorrido = System.nanoTime() - inicioEspera;
+        if (decorrido < GIRO_NANOS) {
+            girosEspera = 0;
+            Thread.onSpinWait();
+            return;
+        }
+        if (decorrido > prazoRespostaMs * 1_000_000L) {
+            throw new IOException("Servidor IPC não respondeu em " + prazoRespostaMs + " ms");
+        }
+        Thread.yield();
+    }
+
+    /**
+     * Consome uma mensagem de market data (confirmações fora de ordem são descartadas).
+     */
+    private void consumir(ByteBuffer mensagem) {
+        if (mensagem.get() == ProtocoloBinario.PRECO && listenerPrecos != null) {
+            String simbolo = ProtocoloBinario.lerTexto(mensagem, ProtocoloBinario.TAMANHO_SIMBOLO);
+            // O preço anterior não trafega no protocolo
+            listenerPrecos.atualizacaoPreco(simbolo, Double.NaN, mensagem.getDouble());
+        }
+        mercado.liberar();
+    }
+
+    /**
+     * Remove os arquivos dos anéis; o servidor encerra a sessão na próxima varredura.
+     */
+    @Override
+    public void close() throws IOException {
+        comandos.close();
+        mercado.close();
+        Files.deleteIfExists(arquivoComandos);
+        Files.deleteIfExists(arquivoMercado);
+    }
+}
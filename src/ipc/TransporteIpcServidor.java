@@ -0,0 +1,249 @@
+/*
+ * Transporte IPC por memória compartilhada (lado servidor)
+ *
+ * Para clientes na mesma máquina do servidor. Cada cliente cria no diretório
+ * de IPC um par de anéis mapeados em memória:
+ *   <cliente>.md   servidor -> cliente (confirmações e preços)
+ *   <cliente>.cmd  cliente -> servidor (ordens e cancelamentos)
+ *
+ * Uma thread do servidor varre os anéis de comando, entrega as ordens ao
+ * BolsaValoresController (o mesmo usado pelo RMI) e responde no anel de market data.
+ * Sem mensagens, a thread gira sem chamadas ao sistema por GIRO_NANOS (tempo de
+ * sobra para o cliente publicar o próximo comando), depois cede a CPU e, ociosa por
+ * mais tempo, estaciona por poucos microssegundos.
+ */
+package ipc;
+
+import controller.BolsaValoresController;
+import gateway.ProcessadorComandos;
+import gateway.ProtocoloBinario;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import interfaces.PrecoAcaoListener;
+
+public class TransporteIpcServidor implements PrecoAcaoListener {
+    public static final String SUFIXO_COMANDOS = ".cmd";
+    public static final String SUFIXO_MERCADO = ".md";
+    public static final int CAPACIDADE_ANEL = 4096;
+    private static final long INTERVALO_DESCOBERTA_NANOS = 100_000_000L;
+    // Tempo ocioso girando, e depois cedendo a CPU, antes de estacionar (sem giro com um
+    // único processador: o cliente precisaria da CPU para publicar o comando)
+    private static final long GIRO_NANOS = Runtime.getRuntime().availableProcessors() > 1 ? 200_000L : 0;
+    private static final long CEDER_NANOS = 50_000_000L;
+    private static final long ESTACIONAMENTO_NANOS = 20_000L;
+
+    private final ProcessadorComandos processador;
+    private final Path diretorio;
+    private final Map<String, SessaoIpc> sessoes = new HashMap<>();
+    private final Queue<PrecoPendente> precosPendentes = new ConcurrentLinkedQueue<>();
+    private Thread thread;
+    private volatile boolean ativo = true;
+
+    /**
+     * Cria o transporte.
+     * @param controller Controller que recebe as ordens
+     * @param diretorio Diretório onde os clientes criam seus anéis
+     */
+    public TransporteIpcServidor(BolsaValoresController controller, Path diretorio) {
+        this.processador = new ProcessadorComandos(controller);
+        this.diretorio = diretorio;
+    }
+
+    /**
+     * Diretório padrão de IPC, dentro do diretório temporário do sistema.
+     */
+    public static Path diretorioPadrao() {
+        return Path.of(System.getProperty("java.io.tmpdir"), "bolsa-ipc");
+    }
+
+    /**
+     * Cria o diretório e inicia a thread de varredura dos anéis.
+     */
+    public void iniciar() throws IOException {
+        Files.createDirectories(diretorio);
+        thread = new Thread(new LacoIpc(), "transporte-ipc");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Encerra a thread de varredura e aguarda o fechamento dos anéis.
+     * Os comandos já publicados pelos clientes são processados antes.
+     */
+    public void parar() {
+        ativo = false;
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Enfileira a atualização de preço para a thread do transporte difundir.
+     */
+    @Override
+    public void atualizacaoPreco(String simboloAcao, double precoAntigo, double novoPreco) {
+        precosPendentes.add(new PrecoPendente(simboloAcao, novoPreco));
+    }
+
+    /**
+     * Par de anéis de um cliente conectado.
+     */
+    private static class SessaoIpc {
+        final AnelMemoriaMapeada comandos;
+        final AnelMemoriaMapeada mercado;
+
+        SessaoIpc(AnelMemoriaMapeada comandos, AnelMemoriaMapeada mercado) {
+            this.comandos = comandos;
+            this.mercado = mercado;
+        }
+
+        void fechar() {
+            try {
+                comandos.close();
+                mercado.close();
+            } catch (IOException ignorada) {
+                // Cliente já removeu os arquivos
+            }
+        }
+    }
+
+    private static class PrecoPendente {
+        final String simboloAcao;
+        final double preco;
+
+        PrecoPendente(String simboloAcao, double preco) {
+            this.simboloAcao = simboloAcao;
+            this.preco = preco;
+        }
+    }
+
+    /**
+     * Thread interna que processa os comandos de todos os clientes IPC.
+     */
+    private class LacoIpc implements Runnable {
+        private long proximaDescoberta = 0;
+        private boolean ocioso = false;
+        private long inicioOcioso;
+
+        @Override
+        public void run() {
+            while (ativo) {
+                long agora = System.nanoTime();
+                if (agora >= proximaDescoberta) {
+                    descobrirSessoes();
+                    proximaDescoberta = agora + INTERVALO_DESCOBERTA_NANOS;
+                }
+                boolean trabalhou = difundirPrecos();
+                for (SessaoIpc sessao : sessoes.values()) {
+                    trabalhou |= processarComandos(sessao);
+                }
+                if (trabalhou) {
+                    ocioso = false;
+                    continue;
+                }
+                if (!ocioso) {
+                    ocioso = true;
+                    inicioOcioso = agora;
+                }
+                long tempoOcioso = agora - inicioOcioso;
+                if (tempoOcioso < GIRO_NANOS) {
+                    Thread.onSpinWait();
+                } else if (tempoOcioso < CEDER_NANOS) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(ESTACIONAMENTO_NANOS);
+                }
+            }
+            for (SessaoIpc sessao : sessoes.values()) {
+                processarComandos(sessao);
+            }
+            sessoes.values().forEach(SessaoIpc::fechar);
+        }
+
+        /**
+         * Processa os comandos pendentes enquanto houver espaço para as confirmações.
+         * Um comando inválido (tipo desconhecido ou corpo malformado) é descartado sem
+         * resposta; a thread continua atendendo os demais clientes.
+         */
+        private boolean processarComandos(SessaoIpc sessao) {
+            boolean trabalhou = false;
+            ByteBuffer comando;
+            while ((comando = sessao.comandos.proxima()) != null) {
+                ByteBuffer resposta = sessao.mercado.reservar();
+                if (resposta == null) break;
+                boolean respondido;
+                try {
+                    respondido = processador.processar(comando, resposta);
+                } catch (RuntimeException e) {
+                    System.err.println("[IPC] Comando inválido descartado: " + e);
+                    respondido = false;
+                }
+                sessao.comandos.liberar();
+                if (respondido) {
+                    sessao.mercado.publicar();
+                }
+                trabalhou = true;
+            }
+            return trabalhou;
+        }
+
+        private boolean difundirPrecos() {
+            boolean trabalhou = false;
+            PrecoPendente preco;
+            while ((preco = precosPendentes.poll()) != null) {
+                for (SessaoIpc sessao : sessoes.values()) {
+                    ByteBuffer slot = sessao.mercado.reservar();
+                    // Cliente lento: descarta market data em vez de bloquear o transporte
+                    if (slot == null) continue;
+                    ProtocoloBinario.escreverPreco(slot, preco.simboloAcao, preco.preco);
+                    sessao.mercado.publicar();
+                }
+                trabalhou = true;
+            }
+            return trabalhou;
+        }
+
+        /**
+         * Mapeia anéis de clientes novos e descarta os de clientes que removeram seus arquivos.
+         */
+        private void descobrirSessoes() {
+            File[] arquivos = diretorio.toFile().listFiles((dir, nome) -> nome.endsWith(SUFIXO_COMANDOS));
+            if (arquivos == null) return;
+            for (File arquivo : arquivos) {
+                String cliente = arquivo.getName().substring(0, arquivo.getName().length() - SUFIXO_COMANDOS.length());
+                if (sessoes.containsKey(cliente)) continue;
+                try {
+                    AnelMemoriaMapeada mercado = new AnelMemoriaMapeada(diretorio.resolve(cliente + SUFIXO_MERCADO), CAPACIDADE_ANEL);
+                    AnelMemoriaMapeada comandos = new AnelMemoriaMapeada(arquivo.toPath(), CAPACIDADE_ANEL);
+                    sessoes.put(cliente, new SessaoIpc(comandos, mercado));
+                    System.out.println("[IPC] Cliente conectado: " + cliente);
+                } catch (IOException e) {
+                    System.err.println("[IPC] Falha ao mapear anéis de " + cliente + ": " + e.getMessage());
+                }
+            }
+            for (Iterator<Map.Entry<String, SessaoIpc>> it = sessoes.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, SessaoIpc> entrada = it.next();
+                if (!Files.exists(diretorio.resolve(entrada.getKey() + SUFIXO_COMANDOS))) {
+                    entrada.getValue().fechar();
+                    it.remove();
+                    System.out.println("[IPC] Cliente desconectado: " + entrada.getKey());
+                }
+            }
+        }
+    }
+}
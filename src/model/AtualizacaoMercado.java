@@ -0,0 +1,65 @@
+/*
+ * Estado de mercado de uma ação enviado pelo servidor aos investidores.
+ *
+ * Carrega o preço, a fase de negociação e os melhores níveis agregados de cada lado do book.
+ * Cada atualização substitui a anterior da mesma ação por inteiro, então o
+ * cliente não precisa reconstruir nada a partir de deltas; a sequência permite
+ * descartar atualizações antigas que cheguem fora de ordem.
+ * Serializable para uso em RMI.
+ */
+package model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+public class AtualizacaoMercado implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final long sequencia;
+    private final String simboloAcao;
+    private final double preco;
+    private final FaseNegociacao fase;
+    private final List<NivelBook> compras;
+    private final List<NivelBook> vendas;
+
+    /**
+     * Cria a atualização.
+     * @param sequencia Sequência crescente atribuída pelo servidor
+     * @param simboloAcao Código da ação
+     * @param preco Preço atual da ação
+     * @param fase Fase de negociação (contínua, leilão ou suspensa)
+     * @param compras Melhores níveis de compra, do melhor para o pior
+     * @param vendas Melhores níveis de venda, do melhor para o pior
+     */
+    public AtualizacaoMercado(long sequencia, String simboloAcao, double preco, FaseNegociacao fase,
+                              List<NivelBook> compras, List<NivelBook> vendas) {
+        this.sequencia = sequencia;
+        this.simboloAcao = simboloAcao;
+        this.preco = preco;
+        this.fase = fase;
+        this.compras = Collections.unmodifiableList(compras);
+        this.vendas = Collections.unmodifiableList(vendas);
+    }
+
+    public long getSequencia() { return sequencia; }
+    public String getSimboloAcao() { return simboloAcao; }
+    public double getPreco() { return preco; }
+    public FaseNegociacao getFase() { return fase; }
+    public List<NivelBook> getCompras() { return compras; }
+    public List<NivelBook> getVendas() { return vendas; }
+
+    /**
+     * Verifica se os níveis do book são iguais aos de outra atualização.
+     */
+    public boolean mesmoBook(AtualizacaoMercado outra) {
+        return compras.equals(outra.compras) && vendas.equals(outra.vendas);
+    }
+
+    /**
+     * Retorna uma string legível para exibição da atualização.
+     */
+    @Override
+    public String toString() {
+        return String.format("Atualizacao[#%d %s R$%.2f %s]", sequencia, simboloAcao, preco, fase);
+    }
+}
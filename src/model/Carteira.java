@@ -0,0 +1,55 @@
+/*
+ * Carteira de um investidor.
+ *
+ * Conjunto das posições do investidor com os totais de P&L.
+ * Serializable para uso em RMI.
+ */
+package model;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class Carteira implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String investidorId;
+    private final List<PosicaoCarteira> posicoes;
+
+    public Carteira(String investidorId, List<PosicaoCarteira> posicoes) {
+        this.investidorId = investidorId;
+        this.posicoes = posicoes;
+    }
+
+    public String getInvestidorId() { return investidorId; }
+    public List<PosicaoCarteira> getPosicoes() { return posicoes; }
+
+    /**
+     * Retorna o P&L realizado somado de todas as posições.
+     */
+    public double getResultadoRealizado() {
+        double total = 0;
+        for (PosicaoCarteira posicao : posicoes) {
+            total += posicao.getResultadoRealizado();
+        }
+        return total;
+    }
+
+    /**
+     * Retorna o P&L não realizado somado de todas as posições.
+     */
+    public double getResultadoNaoRealizado() {
+        double total = 0;
+        for (PosicaoCarteira posicao : posicoes) {
+            total += posicao.getResultadoNaoRealizado();
+        }
+        return total;
+    }
+
+    /**
+     * Retorna uma string legível para exibição da carteira.
+     */
+    @Override
+    public String toString() {
+        return String.format("Carteira[%s] %d posições | realizado R$%.2f | não realizado R$%.2f",
+            investidorId, posicoes.size(), getResultadoRealizado(), getResultadoNaoRealizado());
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Melhor oferta de compra e de venda (topo do book) de uma ação.
+ *
+ * Fotografia imutável do melhor preço de cada lado e da quantidade total nesse preço.
+ * Um lado sem ofertas tem quantidade zero e preço zero.
+ * Serializable para uso em RMI.
+ */
+package model;
+
+import java.io.Serializable;
+
+public class Cotacao implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String simboloAcao;
+    private final double melhorCompra;
+    private final long quantidadeCompra;
+    private final double melhorVenda;
+    private final long quantidadeVenda;
+
+    /**
+     * Cria a cotação.
+     * @param simboloAcao Código da ação
+     * @param melhorCompra Maior preço de compra
+     * @param quantidadeCompra Quantidade total no maior preço de compra
+     * @param melhorVenda Menor preço de venda
+     * @param quantidadeVenda Quantidade total no menor preço de venda
+     */
+    public Cotacao(String simboloAcao, double melhorCompra, long quantidadeCompra, double melhorVenda, long quantidadeVenda) {
+        this.simboloAcao = simboloAcao;
+        this.melhorCompra = melhorCompra;
+        this.quantidadeCompra = quantidadeCompra;
+        this.melhorVenda = melhorVenda;
+        this.quantidadeVenda = quantidadeVenda;
+    }
+
+    public String getSimboloAcao() { return simboloAcao; }
+    public double getMelhorCompra() { return melhorCompra; }
+    public long getQuantidadeCompra() { return quantidadeCompra; }
+    public double getMelhorVenda() { return melhorVenda; }
+    public long getQuantidadeVenda() { return quantidadeVenda; }
+
+    /**
+     * Verifica se há ofertas de compra.
+     */
+    public boolean temCompra() { return quantidadeCompra > 0; }
+
+    /**
+     * Verifica se há ofertas de venda.
+     */
+    public boolean temVenda() { return quantidadeVenda > 0; }
+
+    /**
+     * Retorna uma string legível para exibição da cotação.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: compra %s | venda %s", simboloAcao,
+            temCompra() ? String.format("%d @ R$%.2f", quantidadeCompra, melhorCompra) : "-",
+            temVenda() ? String.format("%d @ R$%.2f", quantidadeVenda, melhorVenda) : "-");
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Evento sequenciado enviado do servidor primário para o servidor standby.
+ *
+ * Cada alteração de estado da bolsa (ordem recebida, cancelamento, novo preço ou
+ * abertura/encerramento de leilão)
+ * recebe um número de sequência único no primário. O standby aplica os eventos
+ * na mesma ordem, reconstruindo o mesmo book de ofertas.
+ * Serializable para uso em RMI.
+ */
+package model;
+
+import java.io.Serializable;
+
+public class EventoReplicacao implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Enumeração para os tipos de evento replicados.
+     */
+    public enum TipoEvento {
+        ORDEM, CANCELAMENTO, PRECO, INICIO_LEILAO, FIM_LEILAO
+    }
+
+    private final long sequencia;
+    private final TipoEvento tipo;
+    private final Ordem ordem;
+    private final long ordemId;
+    private final String simboloAcao;
+    private final double preco;
+
+    private EventoReplicacao(long sequencia, TipoEvento tipo, Ordem ordem, long ordemId, String simboloAcao, double preco) {
+        this.sequencia = sequencia;
+        this.tipo = tipo;
+        this.ordem = ordem;
+        this.ordemId = ordemId;
+        this.simboloAcao = simboloAcao;
+        this.preco = preco;
+    }
+
+    /**
+     * Cria um evento de nova ordem enviada ao book.
+     */
+    public static EventoReplicacao ordem(long sequencia, Ordem ordem) {
+        return new EventoReplicacao(sequencia, TipoEvento.ORDEM, ordem, ordem.getId(), ordem.getSimboloAcao(), ordem.getPreco());
+    }
+
+    /**
+     * Cria um evento de cancelamento de ordem.
+     */
+    public static EventoReplicacao cancelamento(long sequencia, long ordemId) {
+        return new EventoReplicacao(sequencia, TipoEvento.CANCELAMENTO, null, ordemId, null, 0);
+    }
+
+    /**
+     * Cria um evento de atualização de preço de uma ação.
+     */
+    public static EventoReplicacao preco(long sequencia, String simboloAcao, double novoPreco) {
+        return new EventoReplicacao(sequencia, TipoEvento.PRECO, null, 0, simboloAcao, novoPreco);
+    }
+
+    /**
+     * Cria um evento de abertura do leilão de uma ação.
+     */
+    public static EventoReplicacao inicioLeilao(long sequencia, String simboloAcao) {
+        return new EventoReplicacao(sequencia, TipoEvento.INICIO_LEILAO, null, 0, simboloAcao, 0);
+    }
+
+    /**
+     * Cria um evento de encerramento do leilão de uma ação.
+     */
+    public static EventoReplicacao fimLeilao(long sequencia, String simboloAcao) {
+        return new EventoReplicacao(sequencia, TipoEvento.FIM_LEILAO, null, 0, simboloAcao, 0);
+    }
+
+    public long getSequencia() { return sequencia; }
+    public TipoEvento getTipo() { return tipo; }
+    public Ordem getOrdem() { return ordem; }
+    public long getOrdemId() { return ordemId; }
+    public String getSimboloAcao() { return simboloAcao; }
+    public double getPreco() { return preco; }
+
+    /**
+     * Retorna uma string legível para exibição do evento.
+     */
+    @Override
+    public String toString() {
+        return String.format("Evento[#%d %s]", sequencia, tipo);
+    }
+}
@@ -0,0 +1,13 @@
+/*
+ * Fase de negociação de uma ação, enviada aos investidores junto com o estado de mercado.
+ *
+ * - CONTINUA: ordens são aceitas e casam assim que se cruzam
+ * - LEILAO: ordens são aceitas e se acumulam até o encerramento do leilão
+ *   (leilão de abertura/fechamento ou de volatilidade)
+ * - SUSPENSA: negociação suspensa por volatilidade; novas ordens são recusadas
+ */
+package model;
+
+public enum FaseNegociacao {
+    CONTINUA, LEILAO, SUSPENSA
+}
@@ -0,0 +1,55 @@
+/*
+ * Nível de preço agregado do book de ofertas.
+ *
+ * Fotografia imutável de um preço de um lado do book, com a quantidade
+ * total e o número de ordens em repouso naquele preço.
+ * Serializable para uso em RMI.
+ */
+package model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class NivelBook implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final double preco;
+    private final long quantidadeTotal;
+    private final int numeroOrdens;
+
+    /**
+     * Cria a fotografia de um nível.
+     * @param preco Preço do nível
+     * @param quantidadeTotal Soma das quantidades restantes das ordens do nível
+     * @param numeroOrdens Quantidade de ordens no nível
+     */
+    public NivelBook(double preco, long quantidadeTotal, int numeroOrdens) {
+        this.preco = preco;
+        this.quantidadeTotal = quantidadeTotal;
+        this.numeroOrdens = numeroOrdens;
+    }
+
+    public double getPreco() { return preco; }
+    public long getQuantidadeTotal() { return quantidadeTotal; }
+    public int getNumeroOrdens() { return numeroOrdens; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NivelBook)) return false;
+        NivelBook outro = (NivelBook) o;
+        return preco == outro.preco && quantidadeTotal == outro.quantidadeTotal && numeroOrdens == outro.numeroOrdens;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(preco, quantidadeTotal, numeroOrdens);
+    }
+
+    /**
+     * Retorna uma string legível para exibição do nível.
+     */
+    @Override
+    public String toString() {
+        return String.format("R$%.2f | %d ações em %d ordens", preco, quantidadeTotal, numeroOrdens);
+    }
+}
@@ -2,13 +2,12 @@
  * Modelo de Ordem de compra/venda da bolsa.
  *
  * Representa uma ordem enviada por um investidor, com tipo, ação, preço, quantidade e status.
+ * O ID (sequencial) e o instante de entrada são atribuídos pelo servidor quando a ordem chega ao book.
  * Serializable para uso em RMI.
  */
 package model;
 
 import java.io.Serializable;
-import java.time.LocalDateTime;
-import java.util.UUID;
 
 public class Ordem implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -20,13 +19,14 @@ public class Ordem implements Serializable {
         COMPRA, VENDA
     }
     
-    private final String id;
+    private long id;
     private final String investidorId;
     private final String simboloAcao;
     private final TipoOrdem tipo;
     private final double preco;
     private final int quantidade;
-    private final LocalDateTime dataCriacao;
+    private long timestampNanos;
+    private int quantidadeExecutada;
     private boolean executada;
     
     /**
@@ -34,25 +34,44 @@ public class Ordem implements Serializable {
      * @param investidorId ID do investidor
      * @param simboloAcao Código da ação
      * @param tipo Tipo da ordem (COMPRA/VENDA)
-     * @param preco Preço da ordem
+     * @param preco Preço da ordem (arredondado ao tick de R$0,01)
      * @param quantidade Quantidade de ações
      */
     public Ordem(String investidorId, String simboloAcao, TipoOrdem tipo, double preco, int quantidade) {
-        this.id = UUID.randomUUID().toString();
         this.investidorId = investidorId;
         this.simboloAcao = simboloAcao;
         this.tipo = tipo;
-        this.preco = preco;
+        this.preco = Math.round(preco * 100) / 100.0;
         this.quantidade = quantidade;
-        this.dataCriacao = LocalDateTime.now();
         this.executada = false;
     }
     
     /**
-     * Retorna o ID único da ordem.
+     * Recria uma ordem em repouso a partir do estado guardado no book.
+     */
+    public Ordem(long id, String investidorId, String simboloAcao, TipoOrdem tipo, double preco,
+                 int quantidade, int quantidadeExecutada, long timestampNanos) {
+        this(investidorId, simboloAcao, tipo, preco, quantidade);
+        this.id = id;
+        this.quantidadeExecutada = quantidadeExecutada;
+        this.timestampNanos = timestampNanos;
+    }
+    
+    /**
+     * Retorna o ID único da ordem (0 enquanto a ordem não chegou ao servidor).
      * @return ID da ordem
      */
-    public String getId() { return id; }
+    public long getId() { return id; }
+    
+    /**
+     * Registra a entrada da ordem no servidor.
+     * @param id ID sequencial atribuído pelo book
+     * @param timestampNanos Instante de entrada (System.nanoTime do servidor)
+     */
+    public void registrarEntrada(long id, long timestampNanos) {
+        this.id = id;
+        this.timestampNanos = timestampNanos;
+    }
     
     /**
      * Retorna o ID do investidor que criou a ordem.
@@ -85,10 +104,16 @@ public class Ordem implements Serializable {
     public int getQuantidade() { return quantidade; }
     
     /**
-     * Retorna a data de criação da ordem.
-     * @return Data de criação
+     * Retorna a quantidade ainda não executada.
+     * @return Quantidade restante
+     */
+    public int getQuantidadeRestante() { return quantidade - quantidadeExecutada; }
+    
+    /**
+     * Retorna o instante de entrada da ordem no servidor (System.nanoTime).
+     * @return Timestamp em nanossegundos
      */
-    public LocalDateTime getDataCriacao() { return dataCriacao; }
+    public long getTimestampNanos() { return timestampNanos; }
     
     /**
      * Verifica se a ordem foi executada.
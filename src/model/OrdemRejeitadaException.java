@@ -0,0 +1,15 @@
+/*
+ * Exceção lançada quando uma ordem é recusada antes de chegar ao book.
+ *
+ * Não verificada para atravessar o RMI e os gateways sem alterar as assinaturas;
+ * o cliente recebe a mesma exceção com o motivo da recusa.
+ */
+package model;
+
+public class OrdemRejeitadaException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public OrdemRejeitadaException(String motivo) {
+        super(motivo);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Posição de um investidor em uma ação.
+ *
+ * Fotografia imutável da quantidade, custo médio e resultados (P&L)
+ * realizado e não realizado no momento da consulta.
+ * Serializable para uso em RMI.
+ */
+package model;
+
+import java.io.Serializable;
+
+public class PosicaoCarteira implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String simboloAcao;
+    private final long quantidade;
+    private final double precoMedio;
+    private final double precoAtual;
+    private final double resultadoRealizado;
+
+    /**
+     * Cria a fotografia de uma posição.
+     * @param simboloAcao Código da ação
+     * @param quantidade Quantidade (negativa para posição vendida)
+     * @param precoMedio Custo médio da posição aberta
+     * @param precoAtual Preço de mercado usado na marcação
+     * @param resultadoRealizado P&L já realizado na ação
+     */
+    public PosicaoCarteira(String simboloAcao, long quantidade, double precoMedio, double precoAtual, double resultadoRealizado) {
+        this.simboloAcao = simboloAcao;
+        this.quantidade = quantidade;
+        this.precoMedio = precoMedio;
+        this.precoAtual = precoAtual;
+        this.resultadoRealizado = resultadoRealizado;
+    }
+
+    public String getSimboloAcao() { return simboloAcao; }
+    public long getQuantidade() { return quantidade; }
+    public double getPrecoMedio() { return precoMedio; }
+    public double getPrecoAtual() { return precoAtual; }
+    public double getResultadoRealizado() { return resultadoRealizado; }
+
+    /**
+     * Retorna o P&L não realizado (marcação a mercado da posição aberta).
+     */
+    public double getResultadoNaoRealizado() {
+        return quantidade * (precoAtual - precoMedio);
+    }
+
+    /**
+     * Retorna uma string legível para exibição da posição.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: %d @ R$%.2f (mercado R$%.2f) | realizado R$%.2f | não realizado R$%.2f",
+            simboloAcao, quantidade, precoMedio, precoAtual, resultadoRealizado, getResultadoNaoRealizado());
+    }
+}
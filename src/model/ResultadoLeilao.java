@@ -0,0 +1,55 @@
+/*
+ * Resultado do encerramento de um leilão de uma ação.
+ *
+ * Guarda o preço de equilíbrio (o que maximiza a quantidade executada), a quantidade
+ * executada a esse preço e o número de negócios fechados no encerramento.
+ * Serializable para uso em RMI.
+ */
+package model;
+
+import java.io.Serializable;
+
+public class ResultadoLeilao implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String simboloAcao;
+    private final double preco;
+    private final long quantidade;
+    private final int negocios;
+
+    /**
+     * Cria o resultado.
+     * @param simboloAcao Código da ação
+     * @param preco Preço de equilíbrio (0 se não houve cruzamento)
+     * @param quantidade Quantidade executada ao preço de equilíbrio
+     * @param negocios Número de negócios fechados
+     */
+    public ResultadoLeilao(String simboloAcao, double preco, long quantidade, int negocios) {
+        this.simboloAcao = simboloAcao;
+        this.preco = preco;
+        this.quantidade = quantidade;
+        this.negocios = negocios;
+    }
+
+    public String getSimboloAcao() { return simboloAcao; }
+    public double getPreco() { return preco; }
+    public long getQuantidade() { return quantidade; }
+    public int getNegocios() { return negocios; }
+
+    /**
+     * Indica se o leilão fechou algum negócio.
+     */
+    public boolean temNegocio() {
+        return quantidade > 0;
+    }
+
+    /**
+     * Retorna uma string legível para exibição do resultado.
+     */
+    @Override
+    public String toString() {
+        if (!temNegocio()) {
+            return String.format("Leilao[%s sem negócios]", simboloAcao);
+        }
+        return String.format("Leilao[%s R$%.2f | %d ações em %d negócios]", simboloAcao, preco, quantidade, negocios);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Estado de uma ação em uma fotografia do mercado.
+ *
+ * Valor imutável com o preço da ação e a melhor oferta de cada lado no instante
+ * da fotografia; pode ser compartilhado entre leitores sem cópia.
+ * Serializable para uso em RMI.
+ */
+package model;
+
+import java.io.Serializable;
+
+public final class ResumoAcao implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String simbolo;
+    private final String nome;
+    private final double preco;
+    private final Cotacao cotacao;
+
+    /**
+     * Cria o resumo.
+     * @param simbolo Código da ação
+     * @param nome Nome da empresa
+     * @param preco Preço da ação no instante
+     * @param cotacao Melhor oferta de compra e de venda no instante
+     */
+    public ResumoAcao(String simbolo, String nome, double preco, Cotacao cotacao) {
+        this.simbolo = simbolo;
+        this.nome = nome;
+        this.preco = preco;
+        this.cotacao = cotacao;
+    }
+
+    public String getSimbolo() { return simbolo; }
+    public String getNome() { return nome; }
+    public double getPreco() { return preco; }
+    public Cotacao getCotacao() { return cotacao; }
+
+    /**
+     * Retorna uma nova Acao com o preço deste resumo (para as consultas que devolvem Acao).
+     */
+    public Acao toAcao() {
+        return new Acao(simbolo, nome, preco);
+    }
+
+    /**
+     * Retorna uma string legível para exibição do resumo.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s (%s): R$%.2f | %s", simbolo, nome, preco, cotacao);
+    }
+}
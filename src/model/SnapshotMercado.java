@@ -0,0 +1,75 @@
+/*
+ * Fotografia imutável e versionada do mercado.
+ *
+ * Reúne, para cada ação, um ResumoAcao imutável (preço e melhor oferta de compra
+ * e de venda) em um instante. A versão cresce a cada alteração de preço ou do book,
+ * então um cliente que já tem uma versão pode pedir apenas fotografias mais novas.
+ * A mesma fotografia é entregue a todos os leitores; as consultas que devolvem Acao
+ * (mutável) recebem cópias.
+ * Serializable para uso em RMI.
+ */
+package model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SnapshotMercado implements Serializable {
+    private static final long serialVersionUID = 2L;
+    private final long versao;
+    private final Map<String, ResumoAcao> resumos;
+
+    /**
+     * Cria a fotografia. O mapa não pode ser alterado depois.
+     * @param versao Versão do estado do mercado fotografado
+     * @param resumos Preço e melhor oferta de cada ação, por símbolo
+     */
+    public SnapshotMercado(long versao, Map<String, ResumoAcao> resumos) {
+        this.versao = versao;
+        this.resumos = Collections.unmodifiableMap(resumos);
+    }
+
+    public long getVersao() { return versao; }
+    public Map<String, ResumoAcao> getResumos() { return resumos; }
+
+    /**
+     * Retorna o resumo da ação, ou null se não existir.
+     */
+    public ResumoAcao getResumo(String simbolo) { return resumos.get(simbolo); }
+
+    /**
+     * Retorna cópias das ações com o preço da fotografia.
+     */
+    public Map<String, Acao> getAcoes() {
+        Map<String, Acao> acoes = new HashMap<>();
+        for (ResumoAcao resumo : resumos.values()) {
+            acoes.put(resumo.getSimbolo(), resumo.toAcao());
+        }
+        return acoes;
+    }
+
+    /**
+     * Retorna uma cópia da ação com o preço da fotografia, ou null se não existir.
+     */
+    public Acao getAcao(String simbolo) {
+        ResumoAcao resumo = resumos.get(simbolo);
+        return resumo == null ? null : resumo.toAcao();
+    }
+
+    /**
+     * Retorna a melhor oferta da ação, ou null se não existir.
+     */
+    public Cotacao getCotacao(String simbolo) {
+        ResumoAcao resumo = resumos.get(simbolo);
+        return resumo == null ? null : resumo.getCotacao();
+    }
+
+    /**
+     * Retorna uma string legível para exibição da fotografia.
+     */
+    @Override
+    public String toString() {
+        return String.format("Snapshot[v%d] %d ações", versao, resumos.size());
+    }
+}
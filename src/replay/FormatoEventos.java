@@ -0,0 +1,45 @@
+/*
+ * Formato binário do arquivo de eventos de mercado
+ *
+ * Cabeçalho: magia(4) versão(2). Em seguida, registros identificados pelo primeiro
+ * byte, todos de tamanho fixo exceto TEXTO (big-endian):
+ *
+ *   TEXTO         tipo(1) indice(4) comprimento(1) bytes UTF-8
+ *   ORDEM         tipo(1) instante(8) ordemId(8) investidor(4) simbolo(4) lado(1) preco(8) quantidade(4)
+ *   CANCELAMENTO  tipo(1) instante(8) ordemId(8)
+ *   PRECO         tipo(1) instante(8) simbolo(4) preco(8)
+ *   INICIO_LEILAO tipo(1) instante(8) simbolo(4)
+ *   FIM_LEILAO    tipo(1) instante(8) simbolo(4)
+ *
+ * Símbolos e investidores são gravados uma única vez, em um registro TEXTO anterior
+ * ao primeiro uso, e depois referenciados pelo índice. Preços em centavos; o instante
+ * é em nanossegundos desde o início da gravação.
+ */
+package replay;
+
+public final class FormatoEventos {
+    public static final int MAGIA = 0x42564556; // "BVEV"
+    public static final short VERSAO = 1;
+    public static final int TAMANHO_CABECALHO = 4 + 2;
+
+    public static final byte TEXTO = 1;
+    public static final byte ORDEM = 2;
+    public static final byte CANCELAMENTO = 3;
+    public static final byte PRECO = 4;
+    public static final byte INICIO_LEILAO = 5;
+    public static final byte FIM_LEILAO = 6;
+
+    public static final byte LADO_COMPRA = 0;
+    public static final byte LADO_VENDA = 1;
+
+    public static final int TAMANHO_MAXIMO_TEXTO = 255;
+    public static final int TAMANHO_ORDEM = 1 + 8 + 8 + 4 + 4 + 1 + 8 + 4;
+    public static final int TAMANHO_CANCELAMENTO = 1 + 8 + 8;
+    public static final int TAMANHO_PRECO = 1 + 8 + 4 + 8;
+    public static final int TAMANHO_LEILAO = 1 + 8 + 4;
+    // Maior registro possível (TEXTO com o texto mais longo)
+    public static final int TAMANHO_MAXIMO_REGISTRO = 1 + 4 + 1 + TAMANHO_MAXIMO_TEXTO;
+
+    private FormatoEventos() {
+    }
+}
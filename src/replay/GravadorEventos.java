@@ -0,0 +1,188 @@
+/*
+ * Gravador do fluxo de eventos de mercado
+ *
+ * Grava em arquivo, no formato de FormatoEventos, as ordens aceitas, cancelamentos,
+ * preços e leilões na mesma ordem em que são aplicados ao book. O arquivo pode ser
+ * reproduzido depois em um book novo (ReprodutorEventos) para testes de desempenho
+ * reprodutíveis e backtests de estratégias.
+ *
+ * Os registros são montados em um buffer direto e escritos no arquivo quando ele
+ * enche ou em descarregar(); gravar um evento não faz chamada de sistema na maioria
+ * das vezes. Uma falha de escrita, ou um texto que não cabe no formato, desativa a
+ * gravação sem afetar a negociação: o gravador nunca lança exceção para quem grava.
+ */
+package replay;
+
+import model.Ordem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import interfaces.PrecoAcaoListener;
+
+public class GravadorEventos implements PrecoAcaoListener, Closeable {
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    private final FileChannel canal;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+    // Símbolos e investidores já gravados e seus índices
+    private final Map<String, Integer> textos = new HashMap<>();
+    private final long inicio = System.nanoTime();
+    private long eventos = 0;
+    private boolean ativo = true;
+
+    /**
+     * Cria (ou substitui) o arquivo de eventos e grava o cabeçalho.
+     */
+    public GravadorEventos(Path arquivo) throws IOException {
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(FormatoEventos.MAGIA).putShort(FormatoEventos.VERSAO);
+    }
+
+    /**
+     * Grava uma ordem aceita pelo book (já com o ID atribuído).
+     */
+    public synchronized void gravarOrdem(Ordem ordem) {
+        if (!ativo) return;
+        int investidor = indiceTexto(ordem.getInvestidorId());
+        int simbolo = indiceTexto(ordem.getSimboloAcao());
+        if (investidor < 0 || simbolo < 0) return;
+        garantir(FormatoEventos.TAMANHO_ORDEM);
+        buffer.put(FormatoEventos.ORDEM)
+            .putLong(instante())
+            .putLong(ordem.getId())
+            .putInt(investidor)
+            .putInt(simbolo)
+            .put(ordem.getTipo() == Ordem.TipoOrdem.COMPRA ? FormatoEventos.LADO_COMPRA : FormatoEventos.LADO_VENDA)
+            .putLong(Math.round(ordem.getPreco() * 100))
+            .putInt(ordem.getQuantidade());
+        eventos++;
+    }
+
+    /**
+     * Grava o cancelamento de uma ordem.
+     */
+    public synchronized void gravarCancelamento(long ordemId) {
+        if (!ativo) return;
+        garantir(FormatoEventos.TAMANHO_CANCELAMENTO);
+        buffer.put(FormatoEventos.CANCELAMENTO).putLong(instante()).putLong(ordemId);
+        eventos++;
+    }
+
+    /**
+     * Grava a abertura do leilão de uma ação.
+     */
+    public synchronized void gravarInicioLeilao(String simboloAcao) {
+        gravarLeilao(FormatoEventos.INICIO_LEILAO, simboloAcao);
+    }
+
+    /**
+     * Grava o encerramento do leilão de uma ação.
+     */
+    public synchronized void gravarFimLeilao(String simboloAcao) {
+        gravarLeilao(FormatoEventos.FIM_LEILAO, simboloAcao);
+    }
+
+    /**
+     * Grava os novos preços publicados pelo serviço.
+     */
+    @Override
+    public synchronized void atualizacaoPreco(String simboloAcao, double precoAntigo, double novoPreco) {
+        if (!ativo) return;
+        int simbolo = indiceTexto(simboloAcao);
+        if (simbolo < 0) return;
+        garantir(FormatoEventos.TAMANHO_PRECO);
+        buffer.put(FormatoEventos.PRECO).putLong(instante()).putInt(simbolo).putLong(Math.round(novoPreco * 100));
+        eventos++;
+    }
+
+    /**
+     * Retorna a quantidade de eventos gravados (sem contar os registros de texto).
+     */
+    public synchronized long getEventos() {
+        return eventos;
+    }
+
+    /**
+     * Escreve no arquivo os eventos ainda no buffer.
+     */
+    public synchronized void descarregar() {
+        if (ativo) {
+            escreverBuffer();
+        }
+    }
+
+    /**
+     * Descarrega os eventos pendentes e fecha o arquivo.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        descarregar();
+        ativo = false;
+        canal.close();
+    }
+
+    private void gravarLeilao(byte tipo, String simboloAcao) {
+        if (!ativo) return;
+        int simbolo = indiceTexto(simboloAcao);
+        if (simbolo < 0) return;
+        garantir(FormatoEventos.TAMANHO_LEILAO);
+        buffer.put(tipo).putLong(instante()).putInt(simbolo);
+        eventos++;
+    }
+
+    private long instante() {
+        return System.nanoTime() - inicio;
+    }
+
+    /**
+     * Retorna o índice do texto, gravando um registro TEXTO na primeira vez que aparece.
+     * Um texto longo demais para o formato desativa a gravação (o arquivo não teria
+     * como representar o evento) e retorna -1.
+     */
+    private int indiceTexto(String texto) {
+        Integer indice = textos.get(texto);
+        if (indice == null) {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > FormatoEventos.TAMANHO_MAXIMO_TEXTO) {
+                System.err.println("[GRAVAÇÃO] Texto com " + bytes.length + " bytes excede o limite de " +
+                    FormatoEventos.TAMANHO_MAXIMO_TEXTO + " do arquivo de eventos, gravação desativada");
+                descarregar();
+                ativo = false;
+                return -1;
+            }
+            indice = textos.size();
+            textos.put(texto, indice);
+            garantir(1 + 4 + 1 + bytes.length);
+            buffer.put(FormatoEventos.TEXTO).putInt(indice).put((byte) bytes.length).put(bytes);
+        }
+        return indice;
+    }
+
+    private void garantir(int bytes) {
+        if (buffer.remaining() < bytes) {
+            escreverBuffer();
+        }
+    }
+
+    private void escreverBuffer() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+        } catch (IOException e) {
+            System.err.println("[GRAVAÇÃO] Falha ao gravar eventos, gravação desativada: " + e.getMessage());
+            ativo = false;
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Reprodutor de arquivos de eventos de mercado
+ *
+ * Lê um arquivo gravado pelo GravadorEventos e aplica os eventos, na ordem gravada,
+ * a um controller novo pelo mesmo caminho usado pela réplica standby
+ * (aplicarEventoReplicado): os IDs das ordens são preservados e o book resultante
+ * é o mesmo da gravação.
+ *
+ * O arquivo é lido por janelas mapeadas em memória de tamanho fixo, remapeadas à
+ * medida que a leitura avança; o heap não cresce com o tamanho da gravação.
+ *
+ * Velocidade:
+ * - 1: respeita os intervalos gravados (tempo real)
+ * - N: N vezes mais rápido
+ * - 0 ou negativa: o mais rápido possível
+ */
+package replay;
+
+import controller.BolsaValoresController;
+import model.EventoReplicacao;
+import model.Ordem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+public class ReprodutorEventos implements Closeable {
+    private static final long TAMANHO_JANELA = 64L << 20;
+    private static final double CENTAVOS_POR_REAL = 100.0;
+
+    private final FileChannel canal;
+    private final long tamanho;
+    private final List<String> textos = new ArrayList<>();
+    private MappedByteBuffer janela;
+    private long inicioJanela;
+
+    /**
+     * Abre o arquivo e valida o cabeçalho.
+     */
+    public ReprodutorEventos(Path arquivo) throws IOException {
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        this.tamanho = canal.size();
+        if (tamanho < FormatoEventos.TAMANHO_CABECALHO) {
+            canal.close();
+            throw new IOException("Arquivo de eventos inválido: " + arquivo);
+        }
+        mapear(0);
+        if (janela.getInt() != FormatoEventos.MAGIA || janela.getShort() != FormatoEventos.VERSAO) {
+            canal.close();
+            throw new IOException("Arquivo de eventos inválido ou de versão desconhecida: " + arquivo);
+        }
+    }
+
+    /**
+     * Aplica todos os eventos do arquivo ao controller.
+     * @param destino Controller de uma bolsa nova (mesmo estado inicial da gravação)
+     * @param velocidade Multiplicador do tempo gravado; 0 ou negativa reproduz sem pausas
+     */
+    public ResultadoReproducao reproduzir(BolsaValoresController destino, double velocidade) throws IOException {
+        long eventos = 0;
+        long ordens = 0;
+        long inicio = System.nanoTime();
+        try {
+            while (inicioJanela + janela.position() < tamanho) {
+                if (janela.remaining() < FormatoEventos.TAMANHO_MAXIMO_REGISTRO
+                        && inicioJanela + janela.limit() < tamanho) {
+                    mapear(inicioJanela + janela.position());
+                }
+                byte tipo = janela.get();
+                if (tipo == FormatoEventos.TEXTO) {
+                    lerTexto();
+                    continue;
+                }
+                long instante = janela.getLong();
+                if (velocidade > 0) {
+                    aguardar(inicio + (long) (instante / velocidade));
+                }
+                EventoReplicacao evento = lerEvento(tipo, eventos + 1, instante);
+                destino.aplicarEventoReplicado(evento);
+                eventos++;
+                if (tipo == FormatoEventos.ORDEM) {
+                    ordens++;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // Último registro incompleto (gravação interrompida): reproduz até o anterior
+        }
+        return new ResultadoReproducao(eventos, ordens, System.nanoTime() - inicio);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private EventoReplicacao lerEvento(byte tipo, long sequencia, long instante) throws IOException {
+        switch (tipo) {
+            case FormatoEventos.ORDEM: {
+                long ordemId = janela.getLong();
+                String investidor = textos.get(janela.getInt());
+                String simbolo = textos.get(janela.getInt());
+                Ordem.TipoOrdem lado = janela.get() == FormatoEventos.LADO_COMPRA ? Ordem.TipoOrdem.COMPRA : Ordem.TipoOrdem.VENDA;
+                double preco = janela.getLong() / CENTAVOS_POR_REAL;
+                int quantidade = janela.getInt();
+                return EventoReplicacao.ordem(sequencia, new Ordem(ordemId, investidor, simbolo, lado, preco, quantidade, 0, instante));
+            }
+            case FormatoEventos.CANCELAMENTO:
+                return EventoReplicacao.cancelamento(sequencia, janela.getLong());
+            case FormatoEventos.PRECO: {
+                String simbolo = textos.get(janela.getInt());
+                return EventoReplicacao.preco(sequencia, simbolo, janela.getLong() / CENTAVOS_POR_REAL);
+            }
+            case FormatoEventos.INICIO_LEILAO:
+                return EventoReplicacao.inicioLeilao(sequencia, textos.get(janela.getInt()));
+            case FormatoEventos.FIM_LEILAO:
+                return EventoReplicacao.fimLeilao(sequencia, textos.get(janela.getInt()));
+            default:
+                throw new IOException("Tipo de registro desconhecido " + tipo + " na posição " + (inicioJanela + janela.position() - 9));
+        }
+    }
+
+    private void lerTexto() {
+        int indice = janela.getInt();
+        byte[] bytes = new byte[janela.get() & 0xFF];
+        janela.get(bytes);
+        String texto = new String(bytes, StandardCharsets.UTF_8);
+        while (textos.size() <= indice) {
+            textos.add(null);
+        }
+        textos.set(indice, texto);
+    }
+
+    /**
+     * Aguarda até o instante (nanoTime) previsto para o próximo evento.
+     */
+    private static void aguardar(long alvo) {
+        long espera;
+        while ((espera = alvo - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(espera);
+        }
+    }
+
+    private void mapear(long posicao) throws IOException {
+        inicioJanela = posicao;
+        janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, Math.min(TAMANHO_JANELA, tamanho - posicao));
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Resultado da reprodução de um arquivo de eventos.
+ *
+ * Quantidade de eventos aplicados, tempo total e a taxa obtida.
+ */
+package replay;
+
+public class ResultadoReproducao {
+    private final long eventos;
+    private final long ordens;
+    private final long nanos;
+
+    public ResultadoReproducao(long eventos, long ordens, long nanos) {
+        this.eventos = eventos;
+        this.ordens = ordens;
+        this.nanos = nanos;
+    }
+
+    public long getEventos() { return eventos; }
+    public long getOrdens() { return ordens; }
+    public long getNanos() { return nanos; }
+
+    /**
+     * Retorna a taxa de eventos aplicados por segundo.
+     */
+    public double getEventosPorSegundo() {
+        return nanos == 0 ? 0 : eventos * 1e9 / nanos;
+    }
+
+    /**
+     * Retorna uma string legível para exibição do resultado.
+     */
+    @Override
+    public String toString() {
+        return String.format("Reprodução[%d eventos (%d ordens) em %.1f ms, %.0f eventos/s]",
+            eventos, ordens, nanos / 1e6, getEventosPorSegundo());
+    }
+}
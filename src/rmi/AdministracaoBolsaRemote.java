@@ -0,0 +1,20 @@
+/*
+ * Interface remota de administração da bolsa
+ *
+ * Ações de operador (abrir e encerrar leilões) ficam fora do controller remoto
+ * que os investidores consultam: publicada com outro nome no registro e atendida
+ * apenas em conexões da própria máquina do servidor.
+ */
+package rmi;
+
+import model.ResultadoLeilao;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+public interface AdministracaoBolsaRemote extends Remote {
+    String NOME = "BolsaValoresAdmin";
+
+    void iniciarLeilao(String simboloAcao) throws RemoteException;
+    ResultadoLeilao encerrarLeilao(String simboloAcao) throws RemoteException;
+}
@@ -0,0 +1,82 @@
+/*
+ * Implementação da administração remota da bolsa
+ *
+ * Exportada com sockets ligados ao endereço local (loopback): o stub pode ser obtido
+ * do registro por qualquer um, mas só a máquina do servidor consegue conectar e
+ * chamar os métodos. O stub também conecta pelo loopback, já que o endereço que o
+ * RMI anuncia é o da rede, no qual o servidor não escuta.
+ */
+package rmi;
+
+import controller.BolsaValoresController;
+import model.ResultadoLeilao;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.RMIClientSocketFactory;
+import java.rmi.server.RMIServerSocketFactory;
+import java.rmi.server.UnicastRemoteObject;
+
+public class AdministracaoBolsaRemoteImpl extends UnicastRemoteObject implements AdministracaoBolsaRemote {
+    private static final long serialVersionUID = 1L;
+    private final BolsaValoresController controller;
+
+    public AdministracaoBolsaRemoteImpl(BolsaValoresController controller) throws RemoteException {
+        super(0, new FabricaSocketsLocais(), new FabricaSocketsLocais());
+        this.controller = controller;
+    }
+
+    @Override
+    public void iniciarLeilao(String simboloAcao) throws RemoteException {
+        controller.iniciarLeilao(simboloAcao);
+    }
+
+    @Override
+    public ResultadoLeilao encerrarLeilao(String simboloAcao) throws RemoteException {
+        return controller.encerrarLeilao(simboloAcao);
+    }
+
+    /**
+     * Retira o objeto do RMI.
+     */
+    public void encerrar() {
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException e) {
+            // Já retirado
+        }
+    }
+
+    /**
+     * Escuta e conecta apenas pelo endereço local.
+     */
+    private static class FabricaSocketsLocais implements RMIClientSocketFactory, RMIServerSocketFactory, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Socket createSocket(String host, int porta) throws IOException {
+            return new Socket(InetAddress.getLoopbackAddress(), porta);
+        }
+
+        @Override
+        public ServerSocket createServerSocket(int porta) throws IOException {
+            return new ServerSocket(porta, 0, InetAddress.getLoopbackAddress());
+        }
+
+        // O RMI reaproveita portas e conexões entre objetos com fábricas iguais
+        @Override
+        public boolean equals(Object outro) {
+            return outro instanceof FabricaSocketsLocais;
+        }
+
+        @Override
+        public int hashCode() {
+            return FabricaSocketsLocais.class.hashCode();
+        }
+    }
+}
@@ -1,19 +1,33 @@
 package rmi;
 
 import model.Acao;
+import model.Carteira;
+import model.Cotacao;
+import model.NivelBook;
 import model.Ordem;
+import model.PosicaoCarteira;
+import model.SnapshotMercado;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import interfaces.InvestidorRemote;
 
 public interface BolsaValoresControllerRemote extends Remote {
     Map<String, Acao> listarAcoes() throws RemoteException;
     Acao obterAcao(String simbolo) throws RemoteException;
-    void enviarOrdem(Ordem ordem) throws RemoteException;
+    SnapshotMercado obterSnapshot(long versaoConhecida) throws RemoteException;
+    long enviarOrdem(Ordem ordem) throws RemoteException;
+    boolean cancelarOrdem(long ordemId, String investidorId) throws RemoteException;
     List<Ordem> listarOrdensCompra(String simboloAcao) throws RemoteException;
     List<Ordem> listarOrdensVenda(String simboloAcao) throws RemoteException;
+    List<Ordem> listarOrdens(String simboloAcao, Ordem.TipoOrdem tipo, int inicio, int limite) throws RemoteException;
+    List<NivelBook> consultarNiveis(String simboloAcao, Ordem.TipoOrdem tipo, int profundidade) throws RemoteException;
+    Cotacao consultarCotacao(String simboloAcao) throws RemoteException;
+    Carteira consultarCarteira(String investidorId) throws RemoteException;
+    PosicaoCarteira consultarPosicao(String investidorId, String simboloAcao) throws RemoteException;
     void registrarListener(InvestidorRemote investidor) throws RemoteException;
+    void registrarListener(InvestidorRemote investidor, Set<String> simbolos) throws RemoteException;
     void cancelarRegistroListener(InvestidorRemote investidor) throws RemoteException;
 }
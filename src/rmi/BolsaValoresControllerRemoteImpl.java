@@ -1,37 +1,67 @@
 package rmi;
 
+import controller.AdmissaoOrdens;
 import controller.BolsaValoresController;
 import interfaces.InvestidorRemote;
 import model.Acao;
+import model.Carteira;
+import model.Cotacao;
+import model.NivelBook;
 import model.Ordem;
+import model.PosicaoCarteira;
+import model.SnapshotMercado;
 
+import java.rmi.NoSuchObjectException;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class BolsaValoresControllerRemoteImpl extends UnicastRemoteObject implements BolsaValoresControllerRemote {
     private static final long serialVersionUID = 1L;
     private final BolsaValoresController controller;
+    private final DistribuidorMercado distribuidor;
+    private final AdmissaoOrdens admissao;
 
     public BolsaValoresControllerRemoteImpl(BolsaValoresController controller) throws RemoteException {
+        this(controller, new AdmissaoOrdens(controller));
+    }
+
+    /**
+     * Cria o controller remoto com uma admissão de ordens própria (ex: capacidade diferente da padrão).
+     */
+    public BolsaValoresControllerRemoteImpl(BolsaValoresController controller, AdmissaoOrdens admissao) throws RemoteException {
         super();
         this.controller = controller;
+        this.admissao = admissao;
+        this.distribuidor = new DistribuidorMercado(controller);
+        this.distribuidor.iniciar();
     }
 
     @Override
     public Map<String, Acao> listarAcoes() throws RemoteException {
-        return controller.getAcoes();
+        return controller.obterSnapshot().getAcoes();
     }
 
     @Override
     public Acao obterAcao(String simbolo) throws RemoteException {
-        return controller.getAcao(simbolo);
+        return controller.obterSnapshot().getAcao(simbolo);
+    }
+
+    @Override
+    public SnapshotMercado obterSnapshot(long versaoConhecida) throws RemoteException {
+        return controller.obterSnapshot(versaoConhecida);
+    }
+
+    @Override
+    public long enviarOrdem(Ordem ordem) throws RemoteException {
+        return admissao.enviarOrdem(ordem);
     }
 
     @Override
-    public void enviarOrdem(Ordem ordem) throws RemoteException {
-        controller.enviarOrdem(ordem);
+    public boolean cancelarOrdem(long ordemId, String investidorId) throws RemoteException {
+        return controller.cancelarOrdem(ordemId, investidorId);
     }
 
     @Override
@@ -44,13 +74,66 @@ public class BolsaValoresControllerRemoteImpl extends UnicastRemoteObject implem
         return controller.listarOrdensVenda(simboloAcao);
     }
 
+    @Override
+    public List<Ordem> listarOrdens(String simboloAcao, Ordem.TipoOrdem tipo, int inicio, int limite) throws RemoteException {
+        return controller.listarOrdens(simboloAcao, tipo, inicio, limite);
+    }
+
+    @Override
+    public List<NivelBook> consultarNiveis(String simboloAcao, Ordem.TipoOrdem tipo, int profundidade) throws RemoteException {
+        return controller.consultarNiveis(simboloAcao, tipo, profundidade);
+    }
+
+    @Override
+    public Cotacao consultarCotacao(String simboloAcao) throws RemoteException {
+        return controller.consultarCotacao(simboloAcao);
+    }
+
+    @Override
+    public Carteira consultarCarteira(String investidorId) throws RemoteException {
+        return controller.consultarCarteira(investidorId);
+    }
+
+    @Override
+    public PosicaoCarteira consultarPosicao(String investidorId, String simboloAcao) throws RemoteException {
+        return controller.consultarPosicao(investidorId, simboloAcao);
+    }
+
     @Override
     public void registrarListener(InvestidorRemote investidor) throws RemoteException {
-        // Você pode adaptar para listeners se necessário
+        distribuidor.registrar(investidor.getId(), investidor);
+    }
+
+    @Override
+    public void registrarListener(InvestidorRemote investidor, Set<String> simbolos) throws RemoteException {
+        distribuidor.registrar(investidor.getId(), investidor, simbolos);
     }
 
     @Override
     public void cancelarRegistroListener(InvestidorRemote investidor) throws RemoteException {
-        // Você pode adaptar para listeners se necessário
+        distribuidor.cancelarRegistro(investidor.getId());
+    }
+
+    /**
+     * Retorna a admissão de ordens (fila e recusas por sobrecarga).
+     */
+    public AdmissaoOrdens getAdmissao() {
+        return admissao;
+    }
+
+    /**
+     * Encerra o atendimento: recusa novas ordens, aguarda as da fila, para o envio de
+     * market data e retira o objeto do RMI.
+     * @return true se a fila de ordens esvaziou dentro do prazo
+     */
+    public boolean encerrar(long prazoMs) {
+        boolean drenada = admissao.encerrar(prazoMs);
+        distribuidor.parar();
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException e) {
+            // Já retirado
+        }
+        return drenada;
     }
 }
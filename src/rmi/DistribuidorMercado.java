@@ -0,0 +1,368 @@
+/*
+ * Distribuidor de atualizações de mercado para investidores remotos
+ *
+ * Recebe as alterações de preço, do book e de fase e as entrega aos investidores
+ * registrados pelo callback atualizarMercado. Cada investidor tem as suas pendências,
+ * atendidas por um pool limitado de threads de envio: quando há pendências, o investidor
+ * entra na fila do pool e, na sua vez, recebe tudo o que estava pendente e libera a
+ * thread. Um investidor nunca é atendido por duas threads ao mesmo tempo (a ordem das
+ * suas atualizações é preservada), e o número de threads não cresce com o de clientes.
+ * Um investidor lento ocupa uma thread só durante a própria chamada; os demais seguem
+ * nas outras. A thread que altera o book apenas marca a ação como pendente nos
+ * investidores que a assinam, sem fazer chamadas RMI nem alocar objetos.
+ *
+ * Cada investidor recebe apenas as ações que assinou. Alterações da mesma ação
+ * acumuladas enquanto a sua thread envia são agrupadas em uma única atualização com
+ * o estado mais recente (preço, fase de negociação e melhores níveis). O estado de
+ * cada ação é montado uma vez por alteração e compartilhado entre os investidores.
+ * Ao se registrar, o investidor recebe o estado atual das ações assinadas, inclusive
+ * se estão em leilão ou suspensas. Investidores que não respondem são removidos.
+ *
+ * Suspensões e retomadas por volatilidade são raras e não se agrupam: cada uma entra
+ * na fila do investidor e é entregue antes das atualizações de mercado.
+ */
+package rmi;
+
+import controller.BolsaValoresController;
+import model.Acao;
+import model.AtualizacaoMercado;
+import model.NivelBook;
+import model.Ordem;
+
+import java.rmi.RemoteException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import interfaces.BookDeOfertasListener;
+import interfaces.InvestidorRemote;
+import interfaces.PrecoAcaoListener;
+import interfaces.SuspensaoNegociacaoListener;
+
+public class DistribuidorMercado implements PrecoAcaoListener, BookDeOfertasListener, SuspensaoNegociacaoListener {
+    // Níveis de cada lado enviados em cada atualização
+    public static final int PROFUNDIDADE = 5;
+    public static final int THREADS_ENVIO_PADRAO = 4;
+
+    private final BolsaValoresController controller;
+    // Threads de envio compartilhadas por todos os investidores
+    private final ExecutorService envio;
+    // Estado de cada ação conhecida; criados no início para que marcar não aloque
+    private final Map<String, EstadoAcao> estados = new HashMap<>();
+    // Cópia na escrita: marcar percorre o array sem lock nem iterador
+    private volatile Assinante[] assinantes = new Assinante[0];
+    private final AtomicLong sequencia = new AtomicLong();
+    private volatile boolean ativo = false;
+
+    /**
+     * Cria o distribuidor com o número padrão de threads de envio.
+     */
+    public DistribuidorMercado(BolsaValoresController controller) {
+        this(controller, THREADS_ENVIO_PADRAO);
+    }
+
+    /**
+     * Cria o distribuidor.
+     * @param threadsEnvio Máximo de chamadas atualizarMercado simultâneas (investidores atendidos ao mesmo tempo)
+     */
+    public DistribuidorMercado(BolsaValoresController controller, int threadsEnvio) {
+        this.controller = controller;
+        AtomicInteger numeroThread = new AtomicInteger();
+        this.envio = Executors.newFixedThreadPool(threadsEnvio, tarefa -> {
+            Thread thread = new Thread(tarefa, "distribuidor-" + numeroThread.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (String simbolo : controller.getAcoes().keySet()) {
+            estados.put(simbolo, new EstadoAcao());
+        }
+    }
+
+    /**
+     * Assina as alterações de preço, do book e de fase.
+     */
+    public void iniciar() {
+        ativo = true;
+        controller.adicionarListener(this);
+        controller.getBookDeOfertas().adicionarListener(this);
+        controller.adicionarListenerSuspensao(this);
+    }
+
+    /**
+     * Cancela as assinaturas e encerra as threads de envio.
+     */
+    public void parar() {
+        ativo = false;
+        controller.removerListener(this);
+        controller.getBookDeOfertas().removerListener(this);
+        controller.removerListenerSuspensao(this);
+        Assinante[] atuais;
+        synchronized (this) {
+            atuais = assinantes;
+            assinantes = new Assinante[0];
+        }
+        for (Assinante assinante : atuais) {
+            assinante.registrado = false;
+        }
+        envio.shutdown();
+        try {
+            envio.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Registra um investidor para todas as ações.
+     */
+    public void registrar(String investidorId, InvestidorRemote investidor) {
+        registrar(investidorId, investidor, null);
+    }
+
+    /**
+     * Registra um investidor para as ações informadas. Ele recebe em seguida o estado
+     * atual de cada uma. Um novo registro com o mesmo ID substitui o anterior.
+     * @param simbolos Ações assinadas; null assina todas
+     */
+    public void registrar(String investidorId, InvestidorRemote investidor, Set<String> simbolos) {
+        Assinante assinante = new Assinante(investidorId, investidor, simbolos);
+        synchronized (this) {
+            if (!ativo) return;
+            remover(investidorId);
+            Assinante[] novos = new Assinante[assinantes.length + 1];
+            System.arraycopy(assinantes, 0, novos, 0, assinantes.length);
+            novos[assinantes.length] = assinante;
+            assinantes = novos;
+        }
+        // O anterior já foi marcado como não registrado e não volta à fila do pool
+        assinante.agendar();
+    }
+
+    /**
+     * Remove o registro de um investidor.
+     */
+    public void cancelarRegistro(String investidorId) {
+        synchronized (this) {
+            remover(investidorId);
+        }
+    }
+
+    /**
+     * Retorna a quantidade de investidores registrados.
+     */
+    public int getQuantidadeInvestidores() {
+        return assinantes.length;
+    }
+
+    @Override
+    public void atualizacaoPreco(String simboloAcao, double precoAntigo, double novoPreco) {
+        marcar(simboloAcao);
+    }
+
+    @Override
+    public void bookAlterado(String simboloAcao) {
+        marcar(simboloAcao);
+    }
+
+    @Override
+    public void negociacaoSuspensa(String simboloAcao, double preco, boolean leilao) {
+        avisar(new AvisoSuspensao(simboloAcao, true, preco, leilao));
+        marcar(simboloAcao);
+    }
+
+    @Override
+    public void negociacaoRetomada(String simboloAcao) {
+        avisar(new AvisoSuspensao(simboloAcao, false, 0, false));
+        marcar(simboloAcao);
+    }
+
+    private void avisar(AvisoSuspensao aviso) {
+        Assinante[] atuais = assinantes;
+        for (int i = 0; i < atuais.length; i++) {
+            atuais[i].avisar(aviso);
+        }
+    }
+
+    private void marcar(String simboloAcao) {
+        EstadoAcao estado = estados.get(simboloAcao);
+        if (estado == null) return;
+        estado.versao.incrementAndGet();
+        Assinante[] atuais = assinantes;
+        for (int i = 0; i < atuais.length; i++) {
+            atuais[i].marcar(simboloAcao);
+        }
+    }
+
+    /**
+     * Remove o investidor do array de assinantes e o marca como não registrado (ele
+     * deixa de ser colocado na fila do pool). Chamado com o lock do distribuidor.
+     */
+    private Assinante remover(String investidorId) {
+        Assinante[] atuais = assinantes;
+        for (int i = 0; i < atuais.length; i++) {
+            if (atuais[i].investidorId.equals(investidorId)) {
+                atuais[i].registrado = false;
+                Assinante[] novos = new Assinante[atuais.length - 1];
+                System.arraycopy(atuais, 0, novos, 0, i);
+                System.arraycopy(atuais, i + 1, novos, i, atuais.length - i - 1);
+                assinantes = novos;
+                return atuais[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retorna o estado atual da ação, montando-o apenas se houve alteração desde a última montagem.
+     */
+    private AtualizacaoMercado atual(String simboloAcao) {
+        EstadoAcao estado = estados.get(simboloAcao);
+        synchronized (estado) {
+            // A versão é lida antes da montagem: uma alteração concorrente força nova montagem
+            long versao = estado.versao.get();
+            if (estado.ultima == null || estado.versaoUltima != versao) {
+                estado.ultima = construir(simboloAcao);
+                estado.versaoUltima = versao;
+            }
+            return estado.ultima;
+        }
+    }
+
+    private AtualizacaoMercado construir(String simboloAcao) {
+        Acao acao = controller.getAcao(simboloAcao);
+        List<NivelBook> compras = controller.consultarNiveis(simboloAcao, Ordem.TipoOrdem.COMPRA, PROFUNDIDADE);
+        List<NivelBook> vendas = controller.consultarNiveis(simboloAcao, Ordem.TipoOrdem.VENDA, PROFUNDIDADE);
+        return new AtualizacaoMercado(sequencia.incrementAndGet(), simboloAcao, acao.getPreco(),
+            controller.consultarFase(simboloAcao), compras, vendas);
+    }
+
+    /**
+     * Versão das alterações de uma ação e o último estado montado.
+     */
+    private static final class EstadoAcao {
+        final AtomicLong versao = new AtomicLong();
+        AtualizacaoMercado ultima;
+        long versaoUltima;
+    }
+
+    /**
+     * Investidor registrado: ações assinadas e pendências próprias. Executado no pool de
+     * envio sempre que tem pendências, uma vez por vez.
+     */
+    private final class Assinante implements Runnable {
+        final String investidorId;
+        final InvestidorRemote investidor;
+        // Um indicador por ação assinada; ausente para as não assinadas
+        final Map<String, AtomicBoolean> pendentes = new HashMap<>();
+        final Queue<AvisoSuspensao> avisos = new ConcurrentLinkedQueue<>();
+        // Na fila do pool ou em execução: garante uma única thread por investidor
+        final AtomicBoolean agendado = new AtomicBoolean();
+        volatile boolean haPendencias = false;
+        volatile boolean registrado = true;
+
+        Assinante(String investidorId, InvestidorRemote investidor, Set<String> simbolos) {
+            this.investidorId = investidorId;
+            this.investidor = investidor;
+            for (String simbolo : estados.keySet()) {
+                if (simbolos == null || simbolos.contains(simbolo)) {
+                    // Começa pendente: o investidor recebe o estado atual ao se registrar
+                    pendentes.put(simbolo, new AtomicBoolean(true));
+                }
+            }
+            haPendencias = !pendentes.isEmpty();
+        }
+
+        void marcar(String simboloAcao) {
+            AtomicBoolean pendente = pendentes.get(simboloAcao);
+            if (pendente != null && pendente.compareAndSet(false, true)) {
+                sinalizar();
+            }
+        }
+
+        void avisar(AvisoSuspensao aviso) {
+            if (!pendentes.containsKey(aviso.simboloAcao)) return;
+            avisos.add(aviso);
+            sinalizar();
+        }
+
+        private void sinalizar() {
+            haPendencias = true;
+            agendar();
+        }
+
+        /**
+         * Coloca o investidor na fila do pool, se tiver pendências e ainda não estiver nela.
+         */
+        void agendar() {
+            if (haPendencias && registrado && agendado.compareAndSet(false, true)) {
+                try {
+                    envio.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // Distribuidor parado
+                    agendado.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            // Limpo antes de enviar: uma marcação durante o envio volta a agendar
+            haPendencias = false;
+            try {
+                if (!registrado) return;
+                AvisoSuspensao aviso;
+                while ((aviso = avisos.poll()) != null) {
+                    if (aviso.suspensa) {
+                        investidor.notificarSuspensao(aviso.simboloAcao, aviso.preco, aviso.leilao);
+                    } else {
+                        investidor.notificarRetomada(aviso.simboloAcao);
+                    }
+                }
+                for (Map.Entry<String, AtomicBoolean> entrada : pendentes.entrySet()) {
+                    if (entrada.getValue().getAndSet(false)) {
+                        investidor.atualizarMercado(atual(entrada.getKey()));
+                    }
+                }
+            } catch (RemoteException e) {
+                synchronized (DistribuidorMercado.this) {
+                    // Só remove se ainda for o registro vigente (não substituído por um novo)
+                    if (registrado) {
+                        remover(investidorId);
+                    }
+                }
+                System.out.println("[DISTRIBUIDOR] Investidor " + investidorId + " removido (sem resposta)");
+            } finally {
+                agendado.set(false);
+            }
+            // Pendências marcadas enquanto este envio ocupava a thread
+            agendar();
+        }
+    }
+
+    /**
+     * Suspensão ou retomada aguardando entrega.
+     */
+    private static final class AvisoSuspensao {
+        final String simboloAcao;
+        final boolean suspensa;
+        final double preco;
+        final boolean leilao;
+
+        AvisoSuspensao(String simboloAcao, boolean suspensa, double preco, boolean leilao) {
+            this.simboloAcao = simboloAcao;
+            this.suspensa = suspensa;
+            this.preco = preco;
+            this.leilao = leilao;
+        }
+    }
+}
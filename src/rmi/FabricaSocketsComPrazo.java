@@ -0,0 +1,57 @@
+/*
+ * Fábrica de sockets RMI com prazos de conexão e de resposta
+ *
+ * Por padrão uma chamada RMI espera sem limite pela conexão e pela resposta.
+ * Exportada junto com a réplica (e usada na consulta ao seu registro), faz com
+ * que as chamadas do primário falhem com RemoteException quando a réplica trava,
+ * em vez de prender quem publica.
+ */
+package rmi;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.rmi.server.RMIClientSocketFactory;
+
+public class FabricaSocketsComPrazo implements RMIClientSocketFactory, Serializable {
+    private static final long serialVersionUID = 1L;
+    private final int prazoConexaoMs;
+    private final int prazoRespostaMs;
+
+    /**
+     * @param prazoConexaoMs Tempo máximo para abrir a conexão
+     * @param prazoRespostaMs Tempo máximo sem receber dados durante uma chamada
+     */
+    public FabricaSocketsComPrazo(int prazoConexaoMs, int prazoRespostaMs) {
+        this.prazoConexaoMs = prazoConexaoMs;
+        this.prazoRespostaMs = prazoRespostaMs;
+    }
+
+    @Override
+    public Socket createSocket(String host, int porta) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, porta), prazoConexaoMs);
+            socket.setSoTimeout(prazoRespostaMs);
+            socket.setTcpNoDelay(true);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        return socket;
+    }
+
+    // O RMI compartilha conexões entre stubs com fábricas iguais
+    @Override
+    public boolean equals(Object outro) {
+        if (!(outro instanceof FabricaSocketsComPrazo)) return false;
+        FabricaSocketsComPrazo fabrica = (FabricaSocketsComPrazo) outro;
+        return prazoConexaoMs == fabrica.prazoConexaoMs && prazoRespostaMs == fabrica.prazoRespostaMs;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * prazoConexaoMs + prazoRespostaMs;
+    }
+}
@@ -0,0 +1,16 @@
+/*
+ * Exceção lançada pela réplica que já assumiu como primária.
+ *
+ * Distingue a réplica promovida de uma réplica fora do ar: o primário que a recebe
+ * sabe que há outro servidor aceitando ordens e deixa de operar, em vez de continuar
+ * com um segundo book (split-brain).
+ */
+package rmi;
+
+public class ReplicaPromovidaException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public ReplicaPromovidaException(long ultimaSequencia) {
+        super("Réplica assumiu como primária a partir do evento #" + ultimaSequencia);
+    }
+}
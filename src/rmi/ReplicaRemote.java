@@ -0,0 +1,13 @@
+package rmi;
+
+import model.EventoReplicacao;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+public interface ReplicaRemote extends Remote {
+    long aplicarEventos(List<EventoReplicacao> eventos) throws RemoteException, ReplicaPromovidaException;
+    void sinalVida(long ultimaSequenciaPrimario) throws RemoteException, ReplicaPromovidaException;
+    long getUltimaSequencia() throws RemoteException;
+}
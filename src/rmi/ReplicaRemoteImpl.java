@@ -0,0 +1,141 @@
+/*
+ * Réplica standby da Bolsa de Valores
+ *
+ * Recebe do servidor primário os eventos sequenciados e os aplica no controller local,
+ * mantendo um book de ofertas idêntico ao do primário.
+ * Monitora os sinais de vida do primário e dispara o failover quando ele fica em silêncio.
+ * Depois de assumir, recusa lotes e sinais de vida com ReplicaPromovidaException: um
+ * primário que só estava lento (ex: pausa do GC) descobre no próximo contato que foi
+ * substituído e deixa de aceitar ordens.
+ */
+package rmi;
+
+import controller.BolsaValoresController;
+import model.EventoReplicacao;
+import service.ReplicadorPrimario;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+
+public class ReplicaRemoteImpl extends UnicastRemoteObject implements ReplicaRemote {
+    private static final long serialVersionUID = 1L;
+    private final BolsaValoresController controller;
+    private final Runnable aoAssumir;
+    private final long toleranciaSilencioMs;
+    private long ultimaSequencia = 0;
+    // Zero enquanto o primário ainda não fez contato
+    private volatile long ultimoContato = 0;
+    private volatile boolean ativa = true;
+    private volatile boolean promovida = false;
+
+    /**
+     * Cria a réplica.
+     * @param controller Controller local onde os eventos são aplicados
+     * @param toleranciaSilencioMs Tempo sem contato do primário até assumir
+     * @param aoAssumir Ação executada no failover (ex: publicar o controller no registro RMI)
+     */
+    public ReplicaRemoteImpl(BolsaValoresController controller, long toleranciaSilencioMs, Runnable aoAssumir) throws RemoteException {
+        // O stub leva a fábrica com prazos: uma réplica travada não prende o primário
+        super(0, new FabricaSocketsComPrazo(ReplicadorPrimario.PRAZO_CONEXAO_MS, ReplicadorPrimario.PRAZO_RESPOSTA_MS), null);
+        this.controller = controller;
+        this.toleranciaSilencioMs = toleranciaSilencioMs;
+        this.aoAssumir = aoAssumir;
+    }
+
+    /**
+     * Aplica um lote de eventos na ordem de sequência.
+     * Eventos já aplicados são ignorados, permitindo reenvio pelo primário.
+     * @return Última sequência aplicada (confirmação para o primário)
+     * @throws ReplicaPromovidaException se a réplica já assumiu como primária
+     */
+    @Override
+    public synchronized long aplicarEventos(List<EventoReplicacao> eventos) throws RemoteException, ReplicaPromovidaException {
+        verificarAtiva();
+        ultimoContato = System.currentTimeMillis();
+        for (EventoReplicacao evento : eventos) {
+            if (evento.getSequencia() <= ultimaSequencia) continue;
+            if (evento.getSequencia() != ultimaSequencia + 1) {
+                System.err.println("[REPLICAÇÃO] Lacuna na sequência: esperado #" + (ultimaSequencia + 1) +
+                    ", recebido #" + evento.getSequencia());
+                break;
+            }
+            controller.aplicarEventoReplicado(evento);
+            ultimaSequencia = evento.getSequencia();
+        }
+        return ultimaSequencia;
+    }
+
+    /**
+     * Sinal de vida periódico enviado pelo primário quando não há eventos.
+     */
+    @Override
+    public void sinalVida(long ultimaSequenciaPrimario) throws RemoteException, ReplicaPromovidaException {
+        verificarAtiva();
+        ultimoContato = System.currentTimeMillis();
+    }
+
+    private void verificarAtiva() throws RemoteException, ReplicaPromovidaException {
+        if (promovida) {
+            throw new ReplicaPromovidaException(ultimaSequencia);
+        }
+        if (!ativa) {
+            throw new RemoteException("Réplica encerrada");
+        }
+    }
+
+    @Override
+    public synchronized long getUltimaSequencia() throws RemoteException {
+        return ultimaSequencia;
+    }
+
+    /**
+     * Inicia a thread que detecta a queda do primário e executa o failover.
+     */
+    public void iniciarMonitoramento() {
+        Thread monitor = new Thread(() -> {
+            while (ativa) {
+                try {
+                    Thread.sleep(Math.max(50, toleranciaSilencioMs / 4));
+                    long contato = ultimoContato;
+                    if (contato > 0 && System.currentTimeMillis() - contato > toleranciaSilencioMs) {
+                        assumir();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        });
+        monitor.setDaemon(true);
+        monitor.start();
+    }
+
+    /**
+     * Deixa de aceitar eventos, sem assumir, e retira a réplica do RMI.
+     */
+    public void encerrar() {
+        synchronized (this) {
+            ativa = false;
+        }
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException e) {
+            // Já retirada
+        }
+    }
+
+    /**
+     * Deixa de aceitar eventos e promove esta instância a primária.
+     */
+    private void assumir() {
+        synchronized (this) {
+            if (!ativa) return;
+            ativa = false;
+            promovida = true;
+        }
+        System.out.println("[REPLICAÇÃO] Primário sem resposta. Assumindo a partir do evento #" + ultimaSequencia);
+        aoAssumir.run();
+    }
+}
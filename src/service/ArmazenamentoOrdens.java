@@ -0,0 +1,49 @@
+/*
+ * Armazenamento dos slots de ordens em repouso do book
+ *
+ * Cada ordem ocupa um slot de campos primitivos endereçado por um índice inteiro.
+ * Os campos "proxima" e "anterior" formam a fila FIFO intrusiva de cada nível de preço
+ * e, nos slots livres, a lista de slots disponíveis.
+ * As implementações não são thread-safe: o BookDeOfertas as acessa sob seu próprio lock.
+ */
+package service;
+
+interface ArmazenamentoOrdens {
+    int NENHUMA = -1;
+
+    /**
+     * Obtém um slot livre, reutilizando slots liberados antes de crescer.
+     */
+    int alocar();
+
+    /**
+     * Devolve o slot à lista livre.
+     */
+    void liberar(int slot);
+
+    /**
+     * Retorna a quantidade de slots ocupados por ordens em repouso.
+     */
+    int getEmUso();
+
+    long getId(int slot);
+    void setId(int slot, long valor);
+    long getPrecoCentavos(int slot);
+    void setPrecoCentavos(int slot, long valor);
+    long getTimestampNanos(int slot);
+    void setTimestampNanos(int slot, long valor);
+    int getQuantidade(int slot);
+    void setQuantidade(int slot, int valor);
+    int getRestante(int slot);
+    void setRestante(int slot, int valor);
+    int getInvestidor(int slot);
+    void setInvestidor(int slot, int valor);
+    int getAcao(int slot);
+    void setAcao(int slot, int valor);
+    int getProxima(int slot);
+    void setProxima(int slot, int valor);
+    int getAnterior(int slot);
+    void setAnterior(int slot, int valor);
+    boolean isCompra(int slot);
+    void setCompra(int slot, boolean valor);
+}
@@ -0,0 +1,82 @@
+/*
+ * Bandas de preço de uma ação no book
+ *
+ * Mantém duas referências: uma estática (o preço de abertura ou do último leilão)
+ * e uma dinâmica (média móvel dos últimos preços, em um anel com soma corrente).
+ * Cada preço registrado atualiza a média em O(1), com aritmética inteira em centavos
+ * e sem divisões: a banda dinâmica é comparada com a soma da janela, escalando o preço
+ * pelo tamanho da janela, em vez de com a média. Os limites estáticos só mudam quando
+ * a referência muda.
+ */
+package service;
+
+final class BandaVolatilidade {
+    private static final long BASE_PONTOS = 10_000;
+
+    private final long[] janela;
+    // Larguras das bandas em pontos-base (1/10000) da referência
+    private final long bandaEstatica;
+    private final long bandaDinamica;
+    private int posicao = 0;
+    private int tamanho = 0;
+    private long soma = 0;
+    private long limiteInferior;
+    private long limiteSuperior;
+    // Limites da banda dinâmica sobre a soma, e escala do preço (tamanho * BASE_PONTOS)
+    private long somaInferior;
+    private long somaSuperior;
+    private long escala;
+
+    BandaVolatilidade(long referenciaCentavos, int tamanhoJanela, long bandaEstatica, long bandaDinamica) {
+        this.janela = new long[tamanhoJanela];
+        this.bandaEstatica = bandaEstatica;
+        this.bandaDinamica = bandaDinamica;
+        reiniciar(referenciaCentavos);
+    }
+
+    /**
+     * Indica se o preço está dentro das duas bandas.
+     */
+    boolean permite(long precoCentavos) {
+        if (precoCentavos < limiteInferior || precoCentavos > limiteSuperior) {
+            return false;
+        }
+        long precoEscalado = precoCentavos * escala;
+        return precoEscalado >= somaInferior && precoEscalado <= somaSuperior;
+    }
+
+    /**
+     * Inclui o preço na média móvel, descartando o mais antigo, e recalcula os limites.
+     */
+    void registrar(long precoCentavos) {
+        if (tamanho == janela.length) {
+            soma -= janela[posicao];
+        } else {
+            tamanho++;
+        }
+        janela[posicao] = precoCentavos;
+        soma += precoCentavos;
+        if (++posicao == janela.length) {
+            posicao = 0;
+        }
+        escala = tamanho * BASE_PONTOS;
+        somaInferior = soma * (BASE_PONTOS - bandaDinamica);
+        somaSuperior = soma * (BASE_PONTOS + bandaDinamica);
+    }
+
+    /**
+     * Adota uma nova referência estática e esvazia a média móvel (após um leilão).
+     */
+    void reiniciar(long referenciaCentavos) {
+        long margem = referenciaCentavos * bandaEstatica / BASE_PONTOS;
+        limiteInferior = referenciaCentavos - margem;
+        limiteSuperior = referenciaCentavos + margem;
+        posicao = 0;
+        tamanho = 0;
+        soma = 0;
+        // Janela vazia: a banda dinâmica aceita qualquer preço
+        escala = 0;
+        somaInferior = 0;
+        somaSuperior = 0;
+    }
+}
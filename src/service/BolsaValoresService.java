@@ -1,6 +1,9 @@
 package service;
 
 import model.Acao;
+import model.ResultadoLeilao;
+import model.ResumoAcao;
+import model.SnapshotMercado;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -8,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import interfaces.PrecoAcaoListener;
 
@@ -16,35 +20,109 @@ import interfaces.PrecoAcaoListener;
  *
  * Gerencia as ações, listeners de preço e book de ofertas.
  * Responsável por iniciar a simulação de preços e garantir concorrência.
+ *
+ * As consultas de leitura são servidas por uma fotografia imutável do mercado
+ * (preços e melhor oferta por ação). Cada alteração de preço ou do book apenas
+ * incrementa a versão do mercado; a fotografia é reconstruída uma única vez,
+ * na primeira leitura após a alteração, e publicada por referência volátil.
+ * Leituras sem alteração no meio retornam a mesma fotografia, sem lock nem cópia.
+ *
+ * Cada ação tem bandas de volatilidade: um preço da simulação ou um negócio fora
+ * delas coloca a ação em leilão (ou a suspende) pelo ControleVolatilidade.
+ *
+ * Os preços da simulação são calculados, aplicados e publicados sob o sequenciador
+ * informado pelo controller (o mesmo das ordens), para que a réplica e a gravação
+ * recebam preços, ordens e leilões na ordem em que foram aplicados.
  */
 public class BolsaValoresService {
     private final Map<String, Acao> acoes = new ConcurrentHashMap<>();
     private final List<PrecoAcaoListener> listeners = new ArrayList<>();
     private final Random random = new Random();
     private final BookDeOfertas bookDeOfertas;
+    private volatile ControleRisco controleRisco;
+    private final CarteiraService carteiraService;
+    private final ControleVolatilidade controleVolatilidade;
+    private final List<Thread> atualizadores = new ArrayList<>();
+    private final AtomicLong versaoMercado = new AtomicLong();
+    private final Object reconstrucaoSnapshot = new Object();
+    private volatile SnapshotMercado snapshot;
+    private volatile Object sequenciador = new Object();
     
     /**
-     * Inicializa o serviço com ações de exemplo e book de ofertas.
+     * Inicializa o serviço com ações de exemplo e book de ofertas no heap.
      */
     public BolsaValoresService() {
+        this(BookDeOfertas.ModoArmazenamento.HEAP);
+    }
+
+    /**
+     * Inicializa o serviço com ações de exemplo e book de ofertas no modo de armazenamento indicado.
+     * Violações das bandas de volatilidade levam a ação a leilão.
+     */
+    public BolsaValoresService(BookDeOfertas.ModoArmazenamento modoBook) {
+        this(modoBook, ControleVolatilidade.Reacao.LEILAO);
+    }
+
+    /**
+     * Inicializa o serviço com o modo de armazenamento do book e a reação às violações de banda indicados.
+     */
+    public BolsaValoresService(BookDeOfertas.ModoArmazenamento modoBook, ControleVolatilidade.Reacao reacaoVolatilidade) {
         acoes.put("PETR4", new Acao("PETR4", "Petrobras", 28.50));
         acoes.put("VALE3", new Acao("VALE3", "Vale", 68.20));
         acoes.put("ITUB4", new Acao("ITUB4", "Itaú Unibanco", 32.90));
         acoes.put("BBDC4", new Acao("BBDC4", "Bradesco", 20.15));
         acoes.put("ABEV3", new Acao("ABEV3", "Ambev", 14.80));
         
-        bookDeOfertas = new BookDeOfertas();
+        bookDeOfertas = new BookDeOfertas(modoBook);
+        controleRisco = new ControleRisco(acoes);
+        bookDeOfertas.adicionarListenerExecucao(controleRisco);
+        bookDeOfertas.adicionarListenerCancelamento(controleRisco);
+        carteiraService = new CarteiraService(acoes);
+        bookDeOfertas.adicionarListenerExecucao(carteiraService);
+        bookDeOfertas.adicionarListener(simboloAcao -> versaoMercado.incrementAndGet());
+        controleVolatilidade = new ControleVolatilidade(bookDeOfertas, reacaoVolatilidade);
+        for (Acao acao : acoes.values()) {
+            controleVolatilidade.proteger(acao.getSimbolo(), acao.getPreco());
+        }
+        snapshot = construirSnapshot(versaoMercado.get());
     }
     
     /**
-     * Inicia threads para simulação de atualização de preços das ações.
+     * Inicia threads para simulação de atualização de preços das ações
+     * e a retomada automática das ações suspensas por volatilidade.
      */
     public void iniciarSimulacao() {
-        for (String simbolo : acoes.keySet()) {
-            Thread atualizadorPreco = new Thread(new AtualizadorPreco(simbolo));
-            atualizadorPreco.setDaemon(true);
-            atualizadorPreco.start();
+        controleVolatilidade.iniciar();
+        synchronized (atualizadores) {
+            for (String simbolo : acoes.keySet()) {
+                Thread atualizadorPreco = new Thread(new AtualizadorPreco(simbolo));
+                atualizadorPreco.setDaemon(true);
+                atualizadorPreco.start();
+                atualizadores.add(atualizadorPreco);
+            }
+        }
+    }
+
+    /**
+     * Para a simulação de preços e a retomada automática, aguardando o fim das threads.
+     */
+    public void pararSimulacao() {
+        List<Thread> threads;
+        synchronized (atualizadores) {
+            threads = new ArrayList<>(atualizadores);
+            atualizadores.clear();
+        }
+        for (Thread atualizadorPreco : threads) {
+            atualizadorPreco.interrupt();
         }
+        try {
+            for (Thread atualizadorPreco : threads) {
+                atualizadorPreco.join(1000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        controleVolatilidade.parar();
     }
     
     /**
@@ -54,6 +132,45 @@ public class BolsaValoresService {
         return acoes.get(simbolo);
     }
 
+    /**
+     * Retorna a fotografia atual do mercado, reconstruindo-a se houve alteração desde a última.
+     */
+    public SnapshotMercado getSnapshot() {
+        SnapshotMercado atual = snapshot;
+        if (atual.getVersao() == versaoMercado.get()) {
+            return atual;
+        }
+        synchronized (reconstrucaoSnapshot) {
+            atual = snapshot;
+            // A versão é lida antes da cópia: uma alteração concorrente deixa a fotografia
+            // desatualizada e força nova reconstrução na leitura seguinte
+            long versao = versaoMercado.get();
+            if (atual.getVersao() != versao) {
+                atual = construirSnapshot(versao);
+                snapshot = atual;
+            }
+            return atual;
+        }
+    }
+
+    /**
+     * Retorna a fotografia do mercado apenas se for mais nova que a versão conhecida pelo cliente.
+     * @return Fotografia atual, ou null se a versão conhecida ainda é a atual
+     */
+    public SnapshotMercado getSnapshot(long versaoConhecida) {
+        SnapshotMercado atual = getSnapshot();
+        return atual.getVersao() == versaoConhecida ? null : atual;
+    }
+
+    private SnapshotMercado construirSnapshot(long versao) {
+        Map<String, ResumoAcao> resumos = new HashMap<>();
+        for (Acao acao : acoes.values()) {
+            resumos.put(acao.getSimbolo(), new ResumoAcao(acao.getSimbolo(), acao.getNome(), acao.getPreco(),
+                bookDeOfertas.getCotacao(acao.getSimbolo())));
+        }
+        return new SnapshotMercado(versao, resumos);
+    }
+
     /**
      * Retorna o book de ofertas.
      */
@@ -61,6 +178,46 @@ public class BolsaValoresService {
         return bookDeOfertas;
     }
     
+    /**
+     * Retorna o controle de risco pré-negociação.
+     */
+    public ControleRisco getControleRisco() {
+        return controleRisco;
+    }
+    
+    /**
+     * Retorna o serviço de carteiras e P&L dos investidores.
+     */
+    public CarteiraService getCarteiraService() {
+        return carteiraService;
+    }
+    
+    /**
+     * Retorna o controle de volatilidade (bandas de preço e suspensões).
+     */
+    public ControleVolatilidade getControleVolatilidade() {
+        return controleVolatilidade;
+    }
+
+    /**
+     * Define o lock sob o qual a simulação altera os preços. O controller informa o
+     * lock em que aplica ordens, cancelamentos e leilões.
+     */
+    public void setSequenciador(Object sequenciador) {
+        this.sequenciador = sequenciador;
+    }
+
+    /**
+     * Substitui o controle de risco (ex: limites diferentes dos padrão).
+     */
+    public void setControleRisco(ControleRisco controleRisco) {
+        bookDeOfertas.removerListenerExecucao(this.controleRisco);
+        bookDeOfertas.removerListenerCancelamento(this.controleRisco);
+        this.controleRisco = controleRisco;
+        bookDeOfertas.adicionarListenerExecucao(controleRisco);
+        bookDeOfertas.adicionarListenerCancelamento(controleRisco);
+    }
+    
     /**
      * Retorna todas as ações disponíveis.
      */
@@ -86,6 +243,50 @@ public class BolsaValoresService {
         }
     }
 
+    /**
+     * Define o novo preço de uma ação, notifica os listeners e verifica o book.
+     * Usado pela simulação e pela réplica standby ao aplicar eventos do primário.
+     * Quem chama deve estar no sequenciador, para que a publicação do preço
+     * (replicação, gravação) siga a ordem de aplicação.
+     * Preços fora das bandas de volatilidade, ou de ações em leilão, são descartados.
+     */
+    public void atualizarPreco(String simboloAcao, double novoPreco) {
+        Acao acao = acoes.get(simboloAcao);
+        if (acao == null) return;
+        if (!bookDeOfertas.registrarPreco(simboloAcao, novoPreco)) return;
+        double precoAtual = acao.getPreco();
+        acao.setPreco(novoPreco);
+        versaoMercado.incrementAndGet();
+        
+        // Notificar todos os listeners sobre a mudança de preço
+        synchronized (listeners) {
+            for (PrecoAcaoListener listener : listeners) {
+                listener.atualizacaoPreco(simboloAcao, precoAtual, novoPreco);
+            }
+        }
+        
+        // Verificar se alguma ordem pode ser executada com o novo preço
+        bookDeOfertas.verificarExecucaoOrdens(simboloAcao, novoPreco);
+    }
+
+    /**
+     * Coloca a ação em leilão: as ordens passam a se acumular no book sem casar.
+     */
+    public void iniciarLeilao(String simboloAcao) {
+        bookDeOfertas.iniciarLeilao(simboloAcao);
+    }
+
+    /**
+     * Encerra o leilão da ação ao preço de equilíbrio, desempatando pelo preço atual.
+     * O preço da ação não é alterado aqui; cabe a quem encerra publicá-lo.
+     */
+    public ResultadoLeilao encerrarLeilao(String simboloAcao) {
+        Acao acao = acoes.get(simboloAcao);
+        ResultadoLeilao resultado = bookDeOfertas.encerrarLeilao(simboloAcao, acao == null ? Double.NaN : acao.getPreco());
+        controleVolatilidade.leilaoEncerrado(simboloAcao);
+        return resultado;
+    }
+
     /**
      * Thread interna que simula a atualização de preços de uma ação.
      */
@@ -105,23 +306,15 @@ public class BolsaValoresService {
                     
                     Acao acao = acoes.get(simboloAcao);
                     if (acao != null) {
-                        double precoAtual = acao.getPreco();
-                        // Variação entre -2% e +2%
-                        double variacao = precoAtual * (random.nextDouble() * 0.04 - 0.02);
-                        double novoPreco = Math.max(0.01, precoAtual + variacao);
-                        
-                        acao.setPreco(novoPreco);
-                        
-                        // Notificar todos os listeners sobre a mudança de preço
-                        synchronized (listeners) {
-                            for (PrecoAcaoListener listener : listeners) {
-                                listener.atualizacaoPreco(simboloAcao, precoAtual, novoPreco);
-                            }
+                        synchronized (sequenciador) {
+                            double precoAtual = acao.getPreco();
+                            // Variação entre -2% e +2%
+                            double variacao = precoAtual * (random.nextDouble() * 0.04 - 0.02);
+                            double novoPreco = Math.max(0.01, precoAtual + variacao);
+
+                            atualizarPreco(simboloAcao, novoPreco);
                         }
                         
-                        // Verificar se alguma ordem pode ser executada com o novo preço
-                        bookDeOfertas.verificarExecucaoOrdens(simboloAcao, novoPreco);
-                        
                         System.out.println("[ATUALIZAÇÃO] " + acao);
                     }
                 } catch (InterruptedException e) {
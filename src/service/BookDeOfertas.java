@@ -2,74 +2,225 @@
  * Book de Ofertas da Bolsa de Valores
  *
  * Gerencia ordens de compra e venda concorrentes para cada ação.
- * Responsável por casar ordens, limpar ordens executadas e notificar listeners.
- * Garante consistência dos dados com uso de estruturas concorrentes e sincronização.
+ * Responsável por casar ordens, remover ordens executadas e notificar listeners.
+ *
+ * As ordens em repouso não são guardadas como objetos: ficam em slots reutilizáveis
+ * de um pool de arrays primitivos, com ID sequencial (long), preço em centavos e
+ * timestamp em nanossegundos. Cada ação tem dois lados de níveis de preço, e cada
+ * nível é uma fila FIFO intrusiva de slots com a quantidade total agregada.
+ * Em regime, entrada, execução e cancelamento não alocam objetos; objetos Ordem só
+ * são criados nas consultas (getOrdensCompra/getOrdensVenda).
+ *
+ * As consultas de profundidade (níveis agregados e melhor oferta) leem esses agregados
+ * diretamente; o topo do book e a cotação ficam em cache por ação até a próxima alteração.
+ *
+ * Uma ação pode estar em fase de leilão (abertura/fechamento): as ordens apenas se
+ * acumulam, sem casar, e no encerramento todas as que se cruzam são executadas de uma
+ * vez ao preço de equilíbrio, calculado em uma passada pelos níveis agregados.
+ * Com bandas de volatilidade configuradas, um negócio ou preço fora das bandas
+ * coloca a ação em leilão antes de executar, e os listeners de banda são avisados.
+ *
+ * No modo FORA_DO_HEAP os slots e o índice de IDs ficam em memória direta, e o heap
+ * usado pelo book deixa de crescer com a quantidade de ordens em repouso.
+ * Todas as operações são serializadas pelo lock do book.
  */
 package service;
 
+import model.Cotacao;
+import model.NivelBook;
 import model.Ordem;
+import model.ResultadoLeilao;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
+import interfaces.BandaPrecoListener;
 import interfaces.BookDeOfertasListener;
+import interfaces.CancelamentoOrdemListener;
+import interfaces.ExecucaoOrdemListener;
 
 public class BookDeOfertas {
-    // Mapas concorrentes para ordens de compra e venda por ação
-    private final Map<String, List<Ordem>> ordensCompra = new ConcurrentHashMap<>();
-    private final Map<String, List<Ordem>> ordensVenda = new ConcurrentHashMap<>();
+    private static final int CAPACIDADE_INICIAL = 1024;
+    private static final double CENTAVOS_POR_REAL = 100.0;
+    // Quantidade de níveis por lado mantida em cache para as consultas de profundidade
+    private static final int PROFUNDIDADE_CACHE = 10;
+    private static final long SEM_PRECO = -1;
+
+    /**
+     * Onde ficam os registros das ordens em repouso.
+     */
+    public enum ModoArmazenamento {
+        HEAP, FORA_DO_HEAP
+    }
+
+    private final ArmazenamentoOrdens pool;
+    private final IndiceOrdens indiceOrdens;
+    private final Map<String, LivroAcao> livros = new HashMap<>();
+    private LivroAcao[] livrosPorIndice = new LivroAcao[8];
+    private final Map<String, Integer> indiceInvestidores = new HashMap<>();
+    private String[] investidores = new String[64];
+    private NivelPreco[] niveisLivres = new NivelPreco[64];
+    private int numeroNiveisLivres = 0;
+    private long ultimoId = 0;
     private final List<BookDeOfertasListener> listeners = new ArrayList<>();
+    private final List<ExecucaoOrdemListener> listenersExecucao = new ArrayList<>();
+    private final List<CancelamentoOrdemListener> listenersCancelamento = new ArrayList<>();
+    private final List<BandaPrecoListener> listenersBanda = new ArrayList<>();
+
+    /**
+     * Cria um book com as ordens guardadas no heap.
+     */
+    public BookDeOfertas() {
+        this(ModoArmazenamento.HEAP);
+    }
+
+    /**
+     * Cria um book com o modo de armazenamento indicado.
+     */
+    public BookDeOfertas(ModoArmazenamento modo) {
+        boolean foraDoHeap = modo == ModoArmazenamento.FORA_DO_HEAP;
+        this.pool = foraDoHeap ? new PoolOrdensForaDoHeap() : new PoolOrdens(CAPACIDADE_INICIAL);
+        this.indiceOrdens = foraDoHeap ? new MapaLongIntForaDoHeap(CAPACIDADE_INICIAL) : new MapaLongInt(CAPACIDADE_INICIAL);
+    }
 
     /**
      * Adiciona uma ordem de compra ou venda ao book e tenta casar ordens.
+     * Atribui à ordem o ID sequencial e o instante de entrada.
+     * @return ID atribuído à ordem
+     */
+    public long adicionarOrdem(Ordem ordem) {
+        long timestamp = System.nanoTime();
+        long id = inserir(0, timestamp, ordem.getInvestidorId(), ordem.getSimboloAcao(),
+            ordem.getTipo() == Ordem.TipoOrdem.COMPRA, paraCentavos(ordem.getPreco()), ordem.getQuantidade());
+        ordem.registrarEntrada(id, timestamp);
+        return id;
+    }
+
+    /**
+     * Adiciona uma ordem sem criar objeto Ordem (caminho usado por gateways e benchmarks).
+     * @return ID atribuído à ordem
+     */
+    public long adicionarOrdem(String investidorId, String simboloAcao, Ordem.TipoOrdem tipo, double preco, int quantidade) {
+        return inserir(0, System.nanoTime(), investidorId, simboloAcao,
+            tipo == Ordem.TipoOrdem.COMPRA, paraCentavos(preco), quantidade);
+    }
+
+    /**
+     * Adiciona uma ordem recebida do primário, preservando o ID atribuído por ele.
+     */
+    public void adicionarOrdemReplicada(Ordem ordem) {
+        inserir(ordem.getId(), ordem.getTimestampNanos(), ordem.getInvestidorId(), ordem.getSimboloAcao(),
+            ordem.getTipo() == Ordem.TipoOrdem.COMPRA, paraCentavos(ordem.getPreco()), ordem.getQuantidade());
+    }
+
+    /**
+     * Enfileira a ordem no nível do seu preço e casa o book.
+     * Uma ordem que cruza o book só pode ser o melhor preço do seu lado, então
+     * ela é executada pelo mesmo laço que casa melhor compra com melhor venda.
+     * @param id ID da ordem, ou 0 para atribuir o próximo ID
      */
-    public void adicionarOrdem(Ordem ordem) {
-        String simbolo = ordem.getSimboloAcao();
-        if (ordem.getTipo() == Ordem.TipoOrdem.COMPRA) {
-            ordensCompra.computeIfAbsent(simbolo, k -> Collections.synchronizedList(new ArrayList<>())).add(ordem);
-            ordensCompra.get(simbolo).sort(Comparator.comparing(Ordem::getPreco).reversed());
-        } else {
-            ordensVenda.computeIfAbsent(simbolo, k -> Collections.synchronizedList(new ArrayList<>())).add(ordem);
-            ordensVenda.get(simbolo).sort(Comparator.comparing(Ordem::getPreco));
+    private long inserir(long id, long timestamp, String investidorId, String simboloAcao,
+                         boolean compra, long precoCentavos, int quantidade) {
+        synchronized (this) {
+            if (id == 0) {
+                id = ++ultimoId;
+            } else if (id > ultimoId) {
+                ultimoId = id;
+            }
+            LivroAcao livro = livro(simboloAcao);
+            int slot = pool.alocar();
+            pool.setId(slot, id);
+            pool.setTimestampNanos(slot, timestamp);
+            pool.setPrecoCentavos(slot, precoCentavos);
+            pool.setQuantidade(slot, quantidade);
+            pool.setRestante(slot, quantidade);
+            pool.setInvestidor(slot, indiceInvestidor(investidorId));
+            pool.setAcao(slot, livro.indice);
+            pool.setCompra(slot, compra);
+            LadoLivro lado = compra ? livro.compra : livro.venda;
+            NivelPreco nivel = lado.buscar(precoCentavos);
+            if (nivel == null) {
+                nivel = obterNivel(precoCentavos);
+                lado.inserir(nivel);
+            }
+            nivel.adicionar(pool, slot);
+            indiceOrdens.put(id, slot);
+            livro.versao++;
+            if (!livro.emLeilao) {
+                casar(livro);
+            }
         }
-        verificarExecucaoOrdens(simbolo);
-        notificarAlteracaoBook(simbolo);
+        notificarAlteracaoBook(simboloAcao);
+        return id;
     }
 
     /**
-     * Verifica se há ordens de compra e venda que podem ser executadas (casadas).
-     * Remove ordens executadas e notifica listeners se houver mudanças.
+     * Cancela uma ordem a pedido de um investidor. Os IDs são sequenciais: só o dono
+     * da ordem pode cancelá-la.
+     * @return true se a ordem foi encontrada, pertence ao investidor e foi cancelada
      */
-    public void verificarExecucaoOrdens(String simboloAcao) {
-        List<Ordem> compras = ordensCompra.getOrDefault(simboloAcao, Collections.emptyList());
-        List<Ordem> vendas = ordensVenda.getOrDefault(simboloAcao, Collections.emptyList());
-        boolean mudanca = false;
-        synchronized (compras) {
-            synchronized (vendas) {
-                for (Ordem compra : new ArrayList<>(compras)) {
-                    if (compra.isExecutada()) continue;
-                    for (Ordem venda : new ArrayList<>(vendas)) {
-                        if (venda.isExecutada()) continue;
-                        if (compra.getPreco() >= venda.getPreco()) {
-                            compra.setExecutada(true);
-                            venda.setExecutada(true);
-                            System.out.println("[EXECUÇÃO] Ordem de compra " + compra.getId() +
-                                " casada com ordem de venda " + venda.getId() +
-                                " - " + compra.getQuantidade() + " " + simboloAcao +
-                                " @ R$" + String.format("%.2f", venda.getPreco()));
-                            mudanca = true;
-                        }
-                    }
+    public boolean cancelarOrdem(long ordemId, String investidorId) {
+        if (investidorId == null) return false;
+        return cancelar(ordemId, investidorId);
+    }
+
+    /**
+     * Cancela uma ordem sem verificar o dono (eventos já validados: réplica e reprodução).
+     * @return true se a ordem foi encontrada e cancelada
+     */
+    public boolean cancelarOrdem(long ordemId) {
+        return cancelar(ordemId, null);
+    }
+
+    /**
+     * Cancela uma ordem ainda não executada e notifica os listeners de cancelamento
+     * com a quantidade restante.
+     * @param dono Investidor que precisa ser o dono da ordem; null não verifica
+     */
+    private boolean cancelar(long ordemId, String dono) {
+        String simboloAcao;
+        synchronized (this) {
+            int slot = indiceOrdens.get(ordemId);
+            if (slot == IndiceOrdens.AUSENTE) {
+                return false;
+            }
+            if (dono != null) {
+                Integer indiceDono = indiceInvestidores.get(dono);
+                if (indiceDono == null || indiceDono != pool.getInvestidor(slot)) {
+                    return false;
                 }
             }
+            LivroAcao livro = livrosPorIndice[pool.getAcao(slot)];
+            simboloAcao = livro.simbolo;
+            boolean compra = pool.isCompra(slot);
+            long precoCentavos = pool.getPrecoCentavos(slot);
+            int restante = pool.getRestante(slot);
+            String investidorId = investidores[pool.getInvestidor(slot)];
+            remover(compra ? livro.compra : livro.venda, slot);
+            livro.versao++;
+            notificarCancelamento(simboloAcao, investidorId, compra ? Ordem.TipoOrdem.COMPRA : Ordem.TipoOrdem.VENDA,
+                precoCentavos / CENTAVOS_POR_REAL, restante);
+        }
+        notificarAlteracaoBook(simboloAcao);
+        return true;
+    }
+
+    /**
+     * Verifica se há ordens de compra e venda que podem ser executadas (casadas).
+     * Casa a melhor compra com a melhor venda enquanto os preços se cruzarem,
+     * executando a menor das quantidades restantes (execução parcial) ao preço da venda.
+     * Remove ordens totalmente executadas e notifica listeners se houver mudanças.
+     */
+    public void verificarExecucaoOrdens(String simboloAcao) {
+        boolean mudanca;
+        synchronized (this) {
+            LivroAcao livro = livros.get(simboloAcao);
+            mudanca = livro != null && !livro.emLeilao && casar(livro);
         }
         if (mudanca) {
-            limparOrdensExecutadas();
             notificarAlteracaoBook(simboloAcao);
         }
     }
@@ -82,41 +233,359 @@ public class BookDeOfertas {
     }
 
     /**
-     * Remove ordens executadas do book de ofertas.
+     * Casa o topo do book enquanto a melhor compra alcançar a melhor venda.
+     * @return true se houve algum negócio
+     */
+    private boolean casar(LivroAcao livro) {
+        boolean mudanca = false;
+        while (!livro.compra.isVazio() && !livro.venda.isVazio()) {
+            NivelPreco nivelCompra = livro.compra.melhor();
+            NivelPreco nivelVenda = livro.venda.melhor();
+            if (nivelCompra.precoCentavos < nivelVenda.precoCentavos) break;
+            if (livro.banda != null) {
+                if (!livro.banda.permite(nivelVenda.precoCentavos)) {
+                    suspender(livro, nivelVenda.precoCentavos);
+                    break;
+                }
+                livro.banda.registrar(nivelVenda.precoCentavos);
+            }
+            negociar(livro, nivelCompra, nivelVenda, nivelVenda.precoCentavos / CENTAVOS_POR_REAL);
+            livro.versao++;
+            mudanca = true;
+        }
+        return mudanca;
+    }
+
+    /**
+     * Executa a primeira ordem de cada nível contra a outra, na menor das quantidades restantes.
+     * @return Quantidade executada
+     */
+    private int negociar(LivroAcao livro, NivelPreco nivelCompra, NivelPreco nivelVenda, double precoNegocio) {
+        int compra = nivelCompra.primeira;
+        int venda = nivelVenda.primeira;
+        int quantidade = Math.min(pool.getRestante(compra), pool.getRestante(venda));
+        notificarExecucao(livro.simbolo, compra, venda, quantidade, precoNegocio);
+        executar(livro.compra, nivelCompra, compra, quantidade);
+        executar(livro.venda, nivelVenda, venda, quantidade);
+        return quantidade;
+    }
+
+    /**
+     * Configura as bandas de volatilidade da ação.
+     * @param precoReferencia Referência estática inicial
+     * @param janela Quantidade de preços da média móvel (referência dinâmica)
+     * @param bandaEstatica Desvio máximo da referência estática (ex: 0.10 = 10%)
+     * @param bandaDinamica Desvio máximo da média móvel
+     */
+    public synchronized void configurarBanda(String simboloAcao, double precoReferencia, int janela,
+                                             double bandaEstatica, double bandaDinamica) {
+        livro(simboloAcao).banda = new BandaVolatilidade(paraCentavos(precoReferencia), janela,
+            Math.round(bandaEstatica * 10_000), Math.round(bandaDinamica * 10_000));
+    }
+
+    /**
+     * Verifica um novo preço da ação (fora do casamento, ex: simulação) contra as bandas.
+     * Dentro das bandas, o preço entra na média móvel; fora, a ação vai para leilão.
+     * @return true se o preço pode ser adotado; false se violou as bandas ou a ação está em leilão
+     */
+    public boolean registrarPreco(String simboloAcao, double preco) {
+        synchronized (this) {
+            LivroAcao livro = livros.get(simboloAcao);
+            if (livro == null) {
+                return true;
+            }
+            if (livro.emLeilao) {
+                return false;
+            }
+            if (livro.banda == null) {
+                return true;
+            }
+            long precoCentavos = paraCentavos(preco);
+            if (!livro.banda.permite(precoCentavos)) {
+                suspender(livro, precoCentavos);
+                return false;
+            }
+            livro.banda.registrar(precoCentavos);
+            return true;
+        }
+    }
+
+    /**
+     * Coloca a ação em leilão por violação de banda e avisa os listeners.
+     */
+    private void suspender(LivroAcao livro, long precoCentavos) {
+        livro.emLeilao = true;
+        double preco = precoCentavos / CENTAVOS_POR_REAL;
+        synchronized (listenersBanda) {
+            for (int i = 0; i < listenersBanda.size(); i++) {
+                listenersBanda.get(i).bandaViolada(livro.simbolo, preco);
+            }
+        }
+    }
+
+    /**
+     * Abre a fase de leilão da ação: a partir daqui as ordens apenas se acumulam no book.
+     * Os listeners do book são avisados da mudança de fase.
+     */
+    public void iniciarLeilao(String simboloAcao) {
+        synchronized (this) {
+            livro(simboloAcao).emLeilao = true;
+        }
+        notificarAlteracaoBook(simboloAcao);
+    }
+
+    /**
+     * Indica se a ação está em fase de leilão.
+     */
+    public synchronized boolean isEmLeilao(String simboloAcao) {
+        LivroAcao livro = livros.get(simboloAcao);
+        return livro != null && livro.emLeilao;
+    }
+
+    /**
+     * Encerra o leilão da ação: executa todas as ordens que se cruzam ao preço de equilíbrio
+     * e devolve a ação à negociação contínua com as ordens restantes. As bandas de
+     * volatilidade passam a ter como referência o preço de equilíbrio (ou o de referência,
+     * se não houve negócio).
+     * @param precoReferencia Desempate entre preços com a mesma quantidade executada e o mesmo
+     *                        desequilíbrio (normalmente o último preço da ação); NaN escolhe o menor
      */
-    private void limparOrdensExecutadas() {
-        for (String simbolo : ordensCompra.keySet()) {
-            List<Ordem> compras = ordensCompra.get(simbolo);
-            synchronized (compras) {
-                compras.removeIf(Ordem::isExecutada);
+    public ResultadoLeilao encerrarLeilao(String simboloAcao, double precoReferencia) {
+        ResultadoLeilao resultado;
+        synchronized (this) {
+            LivroAcao livro = livro(simboloAcao);
+            livro.emLeilao = false;
+            long referenciaCentavos = Double.isNaN(precoReferencia) ? SEM_PRECO : paraCentavos(precoReferencia);
+            long precoCentavos = precoEquilibrio(livro, referenciaCentavos);
+            if (precoCentavos == SEM_PRECO) {
+                if (livro.banda != null && referenciaCentavos != SEM_PRECO) {
+                    livro.banda.reiniciar(referenciaCentavos);
+                }
+                resultado = new ResultadoLeilao(simboloAcao, 0, 0, 0);
+            } else {
+                resultado = executarLeilao(livro, simboloAcao, precoCentavos);
             }
         }
-        for (String simbolo : ordensVenda.keySet()) {
-            List<Ordem> vendas = ordensVenda.get(simbolo);
-            synchronized (vendas) {
-                vendas.removeIf(Ordem::isExecutada);
+        // Avisa mesmo sem negócio: a ação voltou à negociação contínua
+        notificarAlteracaoBook(simboloAcao);
+        return resultado;
+    }
+
+    /**
+     * Executa ao preço de equilíbrio todas as ordens que se cruzam. Chamado com o lock do book.
+     */
+    private ResultadoLeilao executarLeilao(LivroAcao livro, String simboloAcao, long precoCentavos) {
+        double preco = precoCentavos / CENTAVOS_POR_REAL;
+        long quantidade = 0;
+        int negocios = 0;
+        while (!livro.compra.isVazio() && !livro.venda.isVazio()) {
+            NivelPreco nivelCompra = livro.compra.melhor();
+            NivelPreco nivelVenda = livro.venda.melhor();
+            if (nivelCompra.precoCentavos < precoCentavos || nivelVenda.precoCentavos > precoCentavos) break;
+            quantidade += negociar(livro, nivelCompra, nivelVenda, preco);
+            negocios++;
+        }
+        if (livro.banda != null) {
+            livro.banda.reiniciar(precoCentavos);
+        }
+        livro.versao++;
+        return new ResultadoLeilao(simboloAcao, preco, quantidade, negocios);
+    }
+
+    /**
+     * Calcula o preço de equilíbrio do leilão em uma única passada pelos níveis que se cruzam,
+     * em ordem crescente de preço. A cada preço candidato (preço de algum nível), a demanda é a
+     * quantidade de compra a esse preço ou acima e a oferta é a de venda a esse preço ou abaixo;
+     * ambas são mantidas incrementalmente. Vence o preço que maximiza min(demanda, oferta);
+     * no empate, o de menor desequilíbrio e depois o mais próximo da referência.
+     * @return Preço em centavos, ou SEM_PRECO se o book não se cruza
+     */
+    private long precoEquilibrio(LivroAcao livro, long referenciaCentavos) {
+        LadoLivro compras = livro.compra;
+        LadoLivro vendas = livro.venda;
+        if (compras.isVazio() || vendas.isVazio()
+                || compras.melhor().precoCentavos < vendas.melhor().precoCentavos) {
+            return SEM_PRECO;
+        }
+        // Demanda no menor candidato (a melhor venda): todas as compras que a alcançam
+        long menorVenda = vendas.melhor().precoCentavos;
+        long demanda = 0;
+        int c = 0;
+        while (c < compras.getTamanho() && compras.nivel(c).precoCentavos >= menorVenda) {
+            demanda += compras.nivel(c).quantidadeTotal;
+            c++;
+        }
+        c--;
+        long oferta = 0;
+        int v = 0;
+        long melhorPreco = SEM_PRECO;
+        long melhorVolume = 0;
+        long melhorDesequilibrio = 0;
+        while (c >= 0) {
+            long preco = compras.nivel(c).precoCentavos;
+            if (v < vendas.getTamanho() && vendas.nivel(v).precoCentavos < preco) {
+                preco = vendas.nivel(v).precoCentavos;
             }
+            while (v < vendas.getTamanho() && vendas.nivel(v).precoCentavos == preco) {
+                oferta += vendas.nivel(v).quantidadeTotal;
+                v++;
+            }
+            long volume = Math.min(demanda, oferta);
+            long desequilibrio = Math.abs(demanda - oferta);
+            if (volume > melhorVolume
+                    || (volume == melhorVolume && volume > 0 && (desequilibrio < melhorDesequilibrio
+                        || (desequilibrio == melhorDesequilibrio && referenciaCentavos != SEM_PRECO
+                            && Math.abs(preco - referenciaCentavos) < Math.abs(melhorPreco - referenciaCentavos))))) {
+                melhorPreco = preco;
+                melhorVolume = volume;
+                melhorDesequilibrio = desequilibrio;
+            }
+            // Compras neste preço não alcançam os candidatos seguintes
+            while (c >= 0 && compras.nivel(c).precoCentavos == preco) {
+                demanda -= compras.nivel(c).quantidadeTotal;
+                c--;
+            }
+        }
+        return melhorPreco;
+    }
+
+    /**
+     * Abate a quantidade executada do slot e o remove do book quando totalmente executado.
+     */
+    private void executar(LadoLivro lado, NivelPreco nivel, int slot, int quantidade) {
+        pool.setRestante(slot, pool.getRestante(slot) - quantidade);
+        nivel.quantidadeTotal -= quantidade;
+        if (pool.getRestante(slot) == 0) {
+            remover(lado, slot);
+        }
+    }
+
+    /**
+     * Retira o slot do seu nível, do índice de IDs e devolve-o ao pool.
+     */
+    private void remover(LadoLivro lado, int slot) {
+        long precoCentavos = pool.getPrecoCentavos(slot);
+        NivelPreco nivel = lado.buscar(precoCentavos);
+        nivel.remover(pool, slot);
+        if (nivel.isVazio()) {
+            lado.remover(precoCentavos);
+            liberarNivel(nivel);
         }
+        indiceOrdens.remove(pool.getId(slot));
+        pool.liberar(slot);
     }
 
     /**
-     * Retorna as ordens de compra não executadas para uma ação.
+     * Retorna as ordens de compra não executadas para uma ação, do melhor para o pior preço.
      */
     public List<Ordem> getOrdensCompra(String simboloAcao) {
-        return ordensCompra.getOrDefault(simboloAcao, Collections.emptyList())
-                .stream()
-                .filter(o -> !o.isExecutada())
-                .collect(Collectors.toList());
+        return getOrdens(simboloAcao, Ordem.TipoOrdem.COMPRA, 0, Integer.MAX_VALUE);
     }
 
     /**
-     * Retorna as ordens de venda não executadas para uma ação.
+     * Retorna as ordens de venda não executadas para uma ação, do melhor para o pior preço.
      */
     public List<Ordem> getOrdensVenda(String simboloAcao) {
-        return ordensVenda.getOrDefault(simboloAcao, Collections.emptyList())
-                .stream()
-                .filter(o -> !o.isExecutada())
-                .collect(Collectors.toList());
+        return getOrdens(simboloAcao, Ordem.TipoOrdem.VENDA, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Retorna uma página das ordens de um lado, na prioridade de execução (preço e chegada).
+     * Níveis inteiros antes da página são pulados pela contagem agregada, sem percorrer suas ordens.
+     * @param inicio Posição da primeira ordem da página (0 = ordem de maior prioridade)
+     * @param limite Quantidade máxima de ordens na página
+     */
+    public synchronized List<Ordem> getOrdens(String simboloAcao, Ordem.TipoOrdem tipo, int inicio, int limite) {
+        List<Ordem> ordens = new ArrayList<>();
+        LivroAcao livro = livros.get(simboloAcao);
+        if (livro == null || inicio < 0 || limite <= 0) {
+            return ordens;
+        }
+        boolean compra = tipo == Ordem.TipoOrdem.COMPRA;
+        LadoLivro lado = compra ? livro.compra : livro.venda;
+        int pular = inicio;
+        for (int n = 0; n < lado.getTamanho() && ordens.size() < limite; n++) {
+            NivelPreco nivel = lado.nivel(n);
+            if (pular >= nivel.numeroOrdens) {
+                pular -= nivel.numeroOrdens;
+                continue;
+            }
+            for (int slot = nivel.primeira; slot != ArmazenamentoOrdens.NENHUMA && ordens.size() < limite; slot = pool.getProxima(slot)) {
+                if (pular > 0) {
+                    pular--;
+                    continue;
+                }
+                ordens.add(new Ordem(pool.getId(slot), investidores[pool.getInvestidor(slot)], simboloAcao, tipo,
+                    pool.getPrecoCentavos(slot) / CENTAVOS_POR_REAL, pool.getQuantidade(slot),
+                    pool.getQuantidade(slot) - pool.getRestante(slot), pool.getTimestampNanos(slot)));
+            }
+        }
+        return ordens;
+    }
+
+    /**
+     * Retorna os melhores níveis agregados de um lado do book, do melhor para o pior preço.
+     * @param profundidade Quantidade máxima de níveis
+     */
+    public synchronized List<NivelBook> getNiveis(String simboloAcao, Ordem.TipoOrdem tipo, int profundidade) {
+        LivroAcao livro = livros.get(simboloAcao);
+        if (livro == null || profundidade <= 0) {
+            return new ArrayList<>();
+        }
+        boolean compra = tipo == Ordem.TipoOrdem.COMPRA;
+        if (profundidade > PROFUNDIDADE_CACHE) {
+            return fotografarNiveis(compra ? livro.compra : livro.venda, profundidade);
+        }
+        List<NivelBook> topo = compra ? livro.topoCompra : livro.topoVenda;
+        long versaoTopo = compra ? livro.versaoTopoCompra : livro.versaoTopoVenda;
+        if (topo == null || versaoTopo != livro.versao) {
+            topo = fotografarNiveis(compra ? livro.compra : livro.venda, PROFUNDIDADE_CACHE);
+            if (compra) {
+                livro.topoCompra = topo;
+                livro.versaoTopoCompra = livro.versao;
+            } else {
+                livro.topoVenda = topo;
+                livro.versaoTopoVenda = livro.versao;
+            }
+        }
+        // Cópia: o cache não pode ser alterado por quem consulta
+        return new ArrayList<>(topo.subList(0, Math.min(profundidade, topo.size())));
+    }
+
+    /**
+     * Retorna a melhor oferta de compra e de venda de uma ação.
+     */
+    public synchronized Cotacao getCotacao(String simboloAcao) {
+        LivroAcao livro = livros.get(simboloAcao);
+        if (livro == null) {
+            return new Cotacao(simboloAcao, 0, 0, 0, 0);
+        }
+        if (livro.cotacao == null || livro.versaoCotacao != livro.versao) {
+            NivelPreco compra = livro.compra.isVazio() ? null : livro.compra.melhor();
+            NivelPreco venda = livro.venda.isVazio() ? null : livro.venda.melhor();
+            livro.cotacao = new Cotacao(simboloAcao,
+                compra == null ? 0 : compra.precoCentavos / CENTAVOS_POR_REAL, compra == null ? 0 : compra.quantidadeTotal,
+                venda == null ? 0 : venda.precoCentavos / CENTAVOS_POR_REAL, venda == null ? 0 : venda.quantidadeTotal);
+            livro.versaoCotacao = livro.versao;
+        }
+        return livro.cotacao;
+    }
+
+    private List<NivelBook> fotografarNiveis(LadoLivro lado, int profundidade) {
+        int n = Math.min(profundidade, lado.getTamanho());
+        List<NivelBook> niveis = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            NivelPreco nivel = lado.nivel(i);
+            niveis.add(new NivelBook(nivel.precoCentavos / CENTAVOS_POR_REAL, nivel.quantidadeTotal, nivel.numeroOrdens));
+        }
+        return niveis;
+    }
+
+    /**
+     * Retorna a quantidade de ordens em repouso no book (todas as ações).
+     */
+    public synchronized int getQuantidadeOrdens() {
+        return pool.getEmUso();
     }
 
     /**
@@ -137,14 +606,166 @@ public class BookDeOfertas {
         }
     }
 
+    /**
+     * Adiciona um listener para execuções (negócios) no book.
+     */
+    public void adicionarListenerExecucao(ExecucaoOrdemListener listener) {
+        synchronized (listenersExecucao) {
+            listenersExecucao.add(listener);
+        }
+    }
+
+    /**
+     * Remove um listener de execuções.
+     */
+    public void removerListenerExecucao(ExecucaoOrdemListener listener) {
+        synchronized (listenersExecucao) {
+            listenersExecucao.remove(listener);
+        }
+    }
+
+    /**
+     * Adiciona um listener para cancelamentos de ordens.
+     */
+    public void adicionarListenerCancelamento(CancelamentoOrdemListener listener) {
+        synchronized (listenersCancelamento) {
+            listenersCancelamento.add(listener);
+        }
+    }
+
+    /**
+     * Remove um listener de cancelamentos.
+     */
+    public void removerListenerCancelamento(CancelamentoOrdemListener listener) {
+        synchronized (listenersCancelamento) {
+            listenersCancelamento.remove(listener);
+        }
+    }
+
+    /**
+     * Adiciona um listener para violações das bandas de volatilidade.
+     */
+    public void adicionarListenerBanda(BandaPrecoListener listener) {
+        synchronized (listenersBanda) {
+            listenersBanda.add(listener);
+        }
+    }
+
+    /**
+     * Remove um listener de violações de banda.
+     */
+    public void removerListenerBanda(BandaPrecoListener listener) {
+        synchronized (listenersBanda) {
+            listenersBanda.remove(listener);
+        }
+    }
+
+    /**
+     * Notifica os listeners de execução sobre um negócio fechado, uma vez para cada lado.
+     * Percorre as listas por índice para não alocar iteradores.
+     */
+    private void notificarExecucao(String simboloAcao, int compra, int venda, int quantidade, double precoNegocio) {
+        String investidorCompra = investidores[pool.getInvestidor(compra)];
+        String investidorVenda = investidores[pool.getInvestidor(venda)];
+        double precoCompra = pool.getPrecoCentavos(compra) / CENTAVOS_POR_REAL;
+        double precoVenda = pool.getPrecoCentavos(venda) / CENTAVOS_POR_REAL;
+        synchronized (listenersExecucao) {
+            for (int i = 0; i < listenersExecucao.size(); i++) {
+                ExecucaoOrdemListener listener = listenersExecucao.get(i);
+                listener.ordemExecutada(simboloAcao, investidorCompra, Ordem.TipoOrdem.COMPRA, precoCompra, precoNegocio, quantidade);
+                listener.ordemExecutada(simboloAcao, investidorVenda, Ordem.TipoOrdem.VENDA, precoVenda, precoNegocio, quantidade);
+            }
+        }
+    }
+
+    private void notificarCancelamento(String simboloAcao, String investidorId, Ordem.TipoOrdem tipo,
+                                       double precoOrdem, int quantidade) {
+        synchronized (listenersCancelamento) {
+            for (int i = 0; i < listenersCancelamento.size(); i++) {
+                listenersCancelamento.get(i).ordemCancelada(simboloAcao, investidorId, tipo, precoOrdem, quantidade);
+            }
+        }
+    }
+
     /**
      * Notifica todos os listeners sobre alteração no book de uma ação.
      */
     private void notificarAlteracaoBook(String simboloAcao) {
         synchronized (listeners) {
-            for (BookDeOfertasListener listener : listeners) {
-                listener.bookAlterado(simboloAcao);
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).bookAlterado(simboloAcao);
+            }
+        }
+    }
+
+    private LivroAcao livro(String simboloAcao) {
+        LivroAcao livro = livros.get(simboloAcao);
+        if (livro == null) {
+            int indice = livros.size();
+            if (indice == livrosPorIndice.length) {
+                livrosPorIndice = Arrays.copyOf(livrosPorIndice, indice * 2);
+            }
+            livro = new LivroAcao(simboloAcao, indice);
+            livros.put(simboloAcao, livro);
+            livrosPorIndice[indice] = livro;
+        }
+        return livro;
+    }
+
+    private int indiceInvestidor(String investidorId) {
+        Integer indice = indiceInvestidores.get(investidorId);
+        if (indice == null) {
+            indice = indiceInvestidores.size();
+            if (indice == investidores.length) {
+                investidores = Arrays.copyOf(investidores, indice * 2);
             }
+            investidores[indice] = investidorId;
+            indiceInvestidores.put(investidorId, indice);
+        }
+        return indice;
+    }
+
+    private NivelPreco obterNivel(long precoCentavos) {
+        NivelPreco nivel = numeroNiveisLivres > 0 ? niveisLivres[--numeroNiveisLivres] : new NivelPreco();
+        nivel.iniciar(precoCentavos);
+        return nivel;
+    }
+
+    private void liberarNivel(NivelPreco nivel) {
+        if (numeroNiveisLivres == niveisLivres.length) {
+            niveisLivres = Arrays.copyOf(niveisLivres, numeroNiveisLivres * 2);
+        }
+        niveisLivres[numeroNiveisLivres++] = nivel;
+    }
+
+    private static long paraCentavos(double preco) {
+        return Math.round(preco * CENTAVOS_POR_REAL);
+    }
+
+    /**
+     * Os dois lados do book de uma ação.
+     */
+    private static final class LivroAcao {
+        final String simbolo;
+        final int indice;
+        final LadoLivro compra = new LadoLivro(true);
+        final LadoLivro venda = new LadoLivro(false);
+        // Em leilão as ordens se acumulam sem casar até o encerramento
+        boolean emLeilao;
+        // Bandas de volatilidade; null quando não configuradas
+        BandaVolatilidade banda;
+        // Incrementada a cada alteração; invalida os caches de consulta
+        long versao;
+        List<NivelBook> topoCompra;
+        long versaoTopoCompra;
+        List<NivelBook> topoVenda;
+        long versaoTopoVenda;
+        Cotacao cotacao;
+        long versaoCotacao;
+
+        LivroAcao(String simbolo, int indice) {
+            this.simbolo = simbolo;
+            this.indice = indice;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+/*
+ * Serviço de carteiras e P&L dos investidores
+ *
+ * Mantém, por investidor e ação, a quantidade, o custo médio e o P&L realizado.
+ * Cada execução atualiza apenas a posição do investidor envolvido, em O(1).
+ *
+ * A marcação a mercado é feita na consulta, lendo o preço atual das ações:
+ * uma atualização de preço não percorre investidores, e o P&L não realizado
+ * de um investidor custa O(posições do investidor) quando é pedido.
+ */
+package service;
+
+import model.Acao;
+import model.Carteira;
+import model.Ordem;
+import model.PosicaoCarteira;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import interfaces.ExecucaoOrdemListener;
+
+public class CarteiraService implements ExecucaoOrdemListener {
+    private final Map<String, Acao> acoes;
+    private final Map<String, Map<String, Posicao>> carteiras = new ConcurrentHashMap<>();
+
+    /**
+     * Cria o serviço.
+     * @param acoes Ações negociadas (fonte do preço de marcação)
+     */
+    public CarteiraService(Map<String, Acao> acoes) {
+        this.acoes = acoes;
+    }
+
+    /**
+     * Atualiza a posição do investidor com o negócio executado.
+     */
+    @Override
+    public void ordemExecutada(String simboloAcao, String investidorId, Ordem.TipoOrdem tipo,
+                               double precoOrdem, double precoNegocio, int quantidade) {
+        Map<String, Posicao> carteira = carteiras.computeIfAbsent(investidorId, k -> new HashMap<>());
+        synchronized (carteira) {
+            Posicao posicao = carteira.computeIfAbsent(simboloAcao, k -> new Posicao());
+            posicao.executar(tipo == Ordem.TipoOrdem.COMPRA ? quantidade : -quantidade, precoNegocio);
+        }
+    }
+
+    /**
+     * Retorna a carteira do investidor marcada a mercado.
+     */
+    public Carteira consultarCarteira(String investidorId) {
+        List<PosicaoCarteira> posicoes = new ArrayList<>();
+        Map<String, Posicao> carteira = carteiras.get(investidorId);
+        if (carteira != null) {
+            synchronized (carteira) {
+                for (Map.Entry<String, Posicao> entrada : carteira.entrySet()) {
+                    posicoes.add(fotografar(entrada.getKey(), entrada.getValue()));
+                }
+            }
+        }
+        return new Carteira(investidorId, posicoes);
+    }
+
+    /**
+     * Retorna a posição do investidor em uma ação marcada a mercado, ou null se nunca negociou a ação.
+     */
+    public PosicaoCarteira consultarPosicao(String investidorId, String simboloAcao) {
+        Map<String, Posicao> carteira = carteiras.get(investidorId);
+        if (carteira == null) return null;
+        synchronized (carteira) {
+            Posicao posicao = carteira.get(simboloAcao);
+            return posicao == null ? null : fotografar(simboloAcao, posicao);
+        }
+    }
+
+    private PosicaoCarteira fotografar(String simboloAcao, Posicao posicao) {
+        Acao acao = acoes.get(simboloAcao);
+        double precoAtual = acao != null ? acao.getPreco() : posicao.precoMedio;
+        return new PosicaoCarteira(simboloAcao, posicao.quantidade, posicao.precoMedio, precoAtual, posicao.resultadoRealizado);
+    }
+
+    /**
+     * Posição mutável de um investidor em uma ação.
+     */
+    private static class Posicao {
+        long quantidade;
+        double precoMedio;
+        double resultadoRealizado;
+
+        /**
+         * Aplica um negócio: aumenta a posição pelo custo médio ponderado ou,
+         * no sentido contrário, realiza o resultado da parte encerrada.
+         * @param delta Quantidade com sinal (positiva na compra, negativa na venda)
+         * @param preco Preço do negócio
+         */
+        void executar(long delta, double preco) {
+            if (quantidade == 0 || Long.signum(quantidade) == Long.signum(delta)) {
+                precoMedio = (precoMedio * quantidade + preco * delta) / (quantidade + delta);
+                quantidade += delta;
+                return;
+            }
+            long encerrada = Math.min(Math.abs(delta), Math.abs(quantidade));
+            // Lucro da posição comprada quando o preço de venda supera o custo; o inverso para a vendida
+            resultadoRealizado += encerrada * (preco - precoMedio) * Long.signum(quantidade);
+            quantidade += delta;
+            if (quantidade == 0) {
+                precoMedio = 0;
+            } else if (Long.signum(quantidade) == Long.signum(delta)) {
+                // A posição virou de lado: o restante abre uma nova posição ao preço do negócio
+                precoMedio = preco;
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Controle de risco pré-negociação
+ *
+ * Valida cada ordem antes de ela chegar ao book:
+ * - Tamanho máximo da ordem
+ * - Banda de preço em torno do preço atual da ação
+ * - Limite de valor financeiro (nocional) em ordens abertas por investidor
+ * - Limite de posição por investidor e ação, considerando ordens abertas
+ * - Limite de taxa de envio de ordens por investidor (token bucket)
+ *
+ * O estado por investidor fica em arrays primitivos indexados por um número
+ * atribuído na primeira ordem do investidor, e é atualizado de forma incremental
+ * a cada ordem aceita, execução e cancelamento. Nenhuma verificação percorre o book.
+ */
+package service;
+
+import model.Acao;
+import model.Ordem;
+import model.OrdemRejeitadaException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import interfaces.CancelamentoOrdemListener;
+import interfaces.ExecucaoOrdemListener;
+
+public class ControleRisco implements ExecucaoOrdemListener, CancelamentoOrdemListener {
+    public static final int QUANTIDADE_MAXIMA_PADRAO = 100_000;
+    public static final double BANDA_PRECO_PADRAO = 0.10;
+    public static final double NOCIONAL_MAXIMO_PADRAO = 5_000_000.0;
+    public static final long POSICAO_MAXIMA_PADRAO = 1_000_000L;
+    public static final int ORDENS_POR_SEGUNDO_PADRAO = 50;
+    public static final int RAJADA_MAXIMA_PADRAO = 100;
+
+    private static final long NANOS_POR_SEGUNDO = 1_000_000_000L;
+    private static final int CAPACIDADE_INICIAL = 64;
+
+    private final Map<String, Acao> acoes;
+    private final Map<String, Integer> indiceAcoes = new HashMap<>();
+    private final Map<String, Integer> indiceInvestidores = new HashMap<>();
+    private final int quantidadeMaxima;
+    private final double bandaPreco;
+    private final double nocionalMaximo;
+    private final long posicaoMaxima;
+    private final long nanosPorOrdem;
+    private final long capacidadeRajadaNanos;
+
+    // Estado por investidor [investidor]
+    private double[] nocionalAberto = new double[CAPACIDADE_INICIAL];
+    // Crédito do token bucket, em nanossegundos acumulados
+    private long[] creditoTaxa = new long[CAPACIDADE_INICIAL];
+    private long[] ultimaRecarga = new long[CAPACIDADE_INICIAL];
+    // Estado por investidor e ação [investidor * numeroAcoes + acao]
+    private long[] posicao;
+    private long[] compraAberta;
+    private long[] vendaAberta;
+    private int numeroInvestidores = 0;
+
+    /**
+     * Cria o controle de risco com os limites padrão.
+     */
+    public ControleRisco(Map<String, Acao> acoes) {
+        this(acoes, QUANTIDADE_MAXIMA_PADRAO, BANDA_PRECO_PADRAO, NOCIONAL_MAXIMO_PADRAO,
+            POSICAO_MAXIMA_PADRAO, ORDENS_POR_SEGUNDO_PADRAO, RAJADA_MAXIMA_PADRAO);
+    }
+
+    /**
+     * Cria o controle de risco.
+     * @param acoes Ações negociadas (usadas para a banda de preço)
+     * @param quantidadeMaxima Quantidade máxima por ordem
+     * @param bandaPreco Desvio máximo do preço da ordem em relação ao preço atual (ex: 0.10 = 10%)
+     * @param nocionalMaximo Valor financeiro máximo em ordens abertas por investidor
+     * @param posicaoMaxima Posição máxima (comprada ou vendida) por investidor e ação
+     * @param ordensPorSegundo Taxa sustentada de ordens por investidor
+     * @param rajadaMaxima Quantidade de ordens aceitas em rajada
+     */
+    public ControleRisco(Map<String, Acao> acoes, int quantidadeMaxima, double bandaPreco, double nocionalMaximo,
+                         long posicaoMaxima, int ordensPorSegundo, int rajadaMaxima) {
+        this.acoes = acoes;
+        for (String simbolo : acoes.keySet()) {
+            indiceAcoes.put(simbolo, indiceAcoes.size());
+        }
+        this.quantidadeMaxima = quantidadeMaxima;
+        this.bandaPreco = bandaPreco;
+        this.nocionalMaximo = nocionalMaximo;
+        this.posicaoMaxima = posicaoMaxima;
+        this.nanosPorOrdem = NANOS_POR_SEGUNDO / ordensPorSegundo;
+        this.capacidadeRajadaNanos = nanosPorOrdem * rajadaMaxima;
+        int celulas = CAPACIDADE_INICIAL * indiceAcoes.size();
+        this.posicao = new long[celulas];
+        this.compraAberta = new long[celulas];
+        this.vendaAberta = new long[celulas];
+    }
+
+    /**
+     * Valida a ordem e, se aprovada, reserva seus limites.
+     * @throws OrdemRejeitadaException se faltar investidor, ação ou tipo, ou se algum limite for violado
+     */
+    public synchronized void aceitar(Ordem ordem) {
+        // Sem tipo a ordem seria tratada como venda; sem investidor chegaria ao book e à gravação
+        if (ordem.getInvestidorId() == null || ordem.getSimboloAcao() == null || ordem.getTipo() == null) {
+            throw new OrdemRejeitadaException("Ordem incompleta: investidor, ação e tipo são obrigatórios");
+        }
+        Integer acao = indiceAcoes.get(ordem.getSimboloAcao());
+        if (acao == null) {
+            throw new OrdemRejeitadaException("Ação desconhecida: " + ordem.getSimboloAcao());
+        }
+        int quantidade = ordem.getQuantidade();
+        if (quantidade <= 0 || quantidade > quantidadeMaxima) {
+            throw new OrdemRejeitadaException("Quantidade fora do limite: " + quantidade);
+        }
+        double referencia = acoes.get(ordem.getSimboloAcao()).getPreco();
+        double preco = ordem.getPreco();
+        if (preco <= 0 || Math.abs(preco - referencia) > referencia * bandaPreco) {
+            throw new OrdemRejeitadaException(String.format("Preço R$%.2f fora da banda de R$%.2f", preco, referencia));
+        }
+
+        int investidor = indiceInvestidor(ordem.getInvestidorId());
+        int celula = investidor * indiceAcoes.size() + acao;
+        double nocional = preco * quantidade;
+        if (nocionalAberto[investidor] + nocional > nocionalMaximo) {
+            throw new OrdemRejeitadaException("Limite de nocional em ordens abertas excedido");
+        }
+        boolean compra = ordem.getTipo() == Ordem.TipoOrdem.COMPRA;
+        long posicaoPotencial = compra
+                ? posicao[celula] + compraAberta[celula] + quantidade
+                : posicao[celula] - vendaAberta[celula] - quantidade;
+        if (Math.abs(posicaoPotencial) > posicaoMaxima) {
+            throw new OrdemRejeitadaException("Limite de posição excedido em " + ordem.getSimboloAcao());
+        }
+        consumirTaxa(investidor);
+
+        nocionalAberto[investidor] += nocional;
+        if (compra) {
+            compraAberta[celula] += quantidade;
+        } else {
+            vendaAberta[celula] += quantidade;
+        }
+    }
+
+    /**
+     * Reserva os limites de uma ordem já validada em outro servidor (réplica standby).
+     */
+    public synchronized void registrarOrdem(Ordem ordem) {
+        Integer acao = indiceAcoes.get(ordem.getSimboloAcao());
+        if (acao == null) return;
+        int investidor = indiceInvestidor(ordem.getInvestidorId());
+        int celula = investidor * indiceAcoes.size() + acao;
+        nocionalAberto[investidor] += ordem.getPreco() * ordem.getQuantidade();
+        if (ordem.getTipo() == Ordem.TipoOrdem.COMPRA) {
+            compraAberta[celula] += ordem.getQuantidade();
+        } else {
+            vendaAberta[celula] += ordem.getQuantidade();
+        }
+    }
+
+    /**
+     * Libera os limites da quantidade restante de uma ordem cancelada.
+     */
+    @Override
+    public synchronized void ordemCancelada(String simboloAcao, String investidorId, Ordem.TipoOrdem tipo,
+                                            double precoOrdem, int quantidadeCancelada) {
+        Integer acao = indiceAcoes.get(simboloAcao);
+        Integer investidor = indiceInvestidores.get(investidorId);
+        if (acao == null || investidor == null) return;
+        int celula = investidor * indiceAcoes.size() + acao;
+        nocionalAberto[investidor] -= precoOrdem * quantidadeCancelada;
+        if (tipo == Ordem.TipoOrdem.COMPRA) {
+            compraAberta[celula] -= quantidadeCancelada;
+        } else {
+            vendaAberta[celula] -= quantidadeCancelada;
+        }
+    }
+
+    /**
+     * Atualiza a posição e libera a exposição em aberto do lado executado.
+     * O nocional é liberado pelo preço da ordem, o mesmo usado na reserva.
+     */
+    @Override
+    public synchronized void ordemExecutada(String simboloAcao, String investidorId, Ordem.TipoOrdem tipo,
+                                            double precoOrdem, double precoNegocio, int quantidade) {
+        Integer acao = indiceAcoes.get(simboloAcao);
+        if (acao == null) return;
+        int investidor = indiceInvestidor(investidorId);
+        int celula = investidor * indiceAcoes.size() + acao;
+        if (tipo == Ordem.TipoOrdem.COMPRA) {
+            posicao[celula] += quantidade;
+            compraAberta[celula] -= quantidade;
+        } else {
+            posicao[celula] -= quantidade;
+            vendaAberta[celula] -= quantidade;
+        }
+        nocionalAberto[investidor] -= precoOrdem * quantidade;
+    }
+
+    /**
+     * Retorna a posição executada de um investidor em uma ação.
+     */
+    public synchronized long getPosicao(String investidorId, String simboloAcao) {
+        Integer acao = indiceAcoes.get(simboloAcao);
+        Integer investidor = indiceInvestidores.get(investidorId);
+        if (acao == null || investidor == null) return 0;
+        return posicao[investidor * indiceAcoes.size() + acao];
+    }
+
+    /**
+     * Token bucket em nanossegundos: cada ordem consome nanosPorOrdem de crédito,
+     * que é recarregado com o tempo até o limite da rajada.
+     */
+    private void consumirTaxa(int investidor) {
+        long agora = System.nanoTime();
+        long credito = Math.min(capacidadeRajadaNanos, creditoTaxa[investidor] + (agora - ultimaRecarga[investidor]));
+        if (credito < nanosPorOrdem) {
+            throw new OrdemRejeitadaException("Limite de ordens por segundo excedido");
+        }
+        creditoTaxa[investidor] = credito - nanosPorOrdem;
+        ultimaRecarga[investidor] = agora;
+    }
+
+    /**
+     * Retorna o índice do investidor, atribuindo um novo na primeira ordem.
+     */
+    private int indiceInvestidor(String investidorId) {
+        Integer indice = indiceInvestidores.get(investidorId);
+        if (indice != null) {
+            return indice;
+        }
+        int novo = numeroInvestidores++;
+        if (novo == nocionalAberto.length) {
+            int capacidade = nocionalAberto.length * 2;
+            nocionalAberto = Arrays.copyOf(nocionalAberto, capacidade);
+            creditoTaxa = Arrays.copyOf(creditoTaxa, capacidade);
+            ultimaRecarga = Arrays.copyOf(ultimaRecarga, capacidade);
+            posicao = Arrays.copyOf(posicao, capacidade * indiceAcoes.size());
+            compraAberta = Arrays.copyOf(compraAberta, capacidade * indiceAcoes.size());
+            vendaAberta = Arrays.copyOf(vendaAberta, capacidade * indiceAcoes.size());
+        }
+        // Investidor novo começa com a rajada completa disponível
+        creditoTaxa[novo] = capacidadeRajadaNanos;
+        ultimaRecarga[novo] = System.nanoTime();
+        indiceInvestidores.put(investidorId, novo);
+        return novo;
+    }
+}
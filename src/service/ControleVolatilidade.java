@@ -0,0 +1,200 @@
+/*
+ * Controle de volatilidade (circuit breaker) por ação
+ *
+ * Configura as bandas de preço de cada ação no book e reage quando uma delas é
+ * violada, seja por um negócio no casamento ou por um novo preço da simulação.
+ * A verificação em si fica no book (comparação com limites já calculados); aqui
+ * ficam apenas a política e o estado das ações suspensas.
+ *
+ * Reações:
+ * - LEILAO: a ação entra em leilão de volatilidade; ordens continuam sendo aceitas
+ *   e se acumulam até o encerramento
+ * - SUSPENSAO: a ação também para de casar, e novas ordens são recusadas
+ *
+ * Em ambos os casos a negociação é retomada após a duração configurada, encerrando
+ * o leilão ao preço de equilíbrio. Suspensões e retomadas são avisadas aos listeners.
+ */
+package service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import interfaces.BandaPrecoListener;
+import interfaces.SuspensaoNegociacaoListener;
+
+public class ControleVolatilidade implements BandaPrecoListener {
+    public static final int JANELA_PADRAO = 32;
+    public static final double BANDA_ESTATICA_PADRAO = 0.10;
+    public static final double BANDA_DINAMICA_PADRAO = 0.05;
+    public static final long DURACAO_PADRAO_MS = 30_000;
+    private static final long INTERVALO_VERIFICACAO_MS = 100;
+
+    /**
+     * Enumeração para as reações a uma violação de banda.
+     */
+    public enum Reacao {
+        LEILAO, SUSPENSAO
+    }
+
+    private final BookDeOfertas book;
+    private final Reacao reacao;
+    private final long duracaoMs;
+    private final int janela;
+    private final double bandaEstatica;
+    private final double bandaDinamica;
+    // Ações suspensas e o instante (ms) previsto para a retomada
+    private final Map<String, Long> suspensas = new ConcurrentHashMap<>();
+    private final List<SuspensaoNegociacaoListener> listeners = new ArrayList<>();
+    private volatile Consumer<String> retomada;
+    private Thread thread;
+
+    /**
+     * Cria o controle com as bandas e a duração padrão.
+     */
+    public ControleVolatilidade(BookDeOfertas book, Reacao reacao) {
+        this(book, reacao, DURACAO_PADRAO_MS, JANELA_PADRAO, BANDA_ESTATICA_PADRAO, BANDA_DINAMICA_PADRAO);
+    }
+
+    /**
+     * Cria o controle e o registra no book para receber as violações de banda.
+     * @param duracaoMs Tempo entre a violação e a retomada automática
+     * @param janela Quantidade de preços da média móvel
+     * @param bandaEstatica Desvio máximo do preço de referência (ex: 0.10 = 10%)
+     * @param bandaDinamica Desvio máximo da média móvel
+     */
+    public ControleVolatilidade(BookDeOfertas book, Reacao reacao, long duracaoMs, int janela,
+                                double bandaEstatica, double bandaDinamica) {
+        this.book = book;
+        this.reacao = reacao;
+        this.duracaoMs = duracaoMs;
+        this.janela = janela;
+        this.bandaEstatica = bandaEstatica;
+        this.bandaDinamica = bandaDinamica;
+        book.adicionarListenerBanda(this);
+    }
+
+    /**
+     * Passa a proteger a ação, com o preço informado como referência estática.
+     */
+    public void proteger(String simboloAcao, double precoReferencia) {
+        book.configurarBanda(simboloAcao, precoReferencia, janela, bandaEstatica, bandaDinamica);
+    }
+
+    /**
+     * Define quem encerra o leilão de uma ação quando o prazo da suspensão termina.
+     */
+    public void setRetomada(Consumer<String> retomada) {
+        this.retomada = retomada;
+    }
+
+    /**
+     * Inicia a thread que retoma as ações cujo prazo de suspensão terminou.
+     */
+    public synchronized void iniciar() {
+        if (thread != null) return;
+        thread = new Thread(new Retomador(), "controle-volatilidade");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Para a thread de retomada; as ações suspensas continuam suspensas.
+     */
+    public void parar() {
+        Thread atual;
+        synchronized (this) {
+            atual = thread;
+            thread = null;
+        }
+        if (atual == null) return;
+        atual.interrupt();
+        try {
+            atual.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Indica se a ação aceita novas ordens (false apenas durante uma SUSPENSAO).
+     */
+    public boolean aceitaOrdens(String simboloAcao) {
+        return reacao != Reacao.SUSPENSAO || !suspensas.containsKey(simboloAcao);
+    }
+
+    /**
+     * Indica se a ação está suspensa por volatilidade.
+     */
+    public boolean isSuspensa(String simboloAcao) {
+        return suspensas.containsKey(simboloAcao);
+    }
+
+    public Reacao getReacao() {
+        return reacao;
+    }
+
+    /**
+     * Chamado pelo book, sob o seu lock, quando um preço viola as bandas da ação.
+     */
+    @Override
+    public void bandaViolada(String simboloAcao, double preco) {
+        if (suspensas.putIfAbsent(simboloAcao, System.currentTimeMillis() + duracaoMs) != null) return;
+        boolean leilao = reacao == Reacao.LEILAO;
+        synchronized (listeners) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).negociacaoSuspensa(simboloAcao, preco, leilao);
+            }
+        }
+    }
+
+    /**
+     * Registra o fim do leilão da ação; se ela estava suspensa, avisa a retomada.
+     */
+    void leilaoEncerrado(String simboloAcao) {
+        if (suspensas.remove(simboloAcao) == null) return;
+        synchronized (listeners) {
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).negociacaoRetomada(simboloAcao);
+            }
+        }
+    }
+
+    public void adicionarListener(SuspensaoNegociacaoListener listener) {
+        synchronized (listeners) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removerListener(SuspensaoNegociacaoListener listener) {
+        synchronized (listeners) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Thread interna que encerra as suspensões vencidas.
+     */
+    private class Retomador implements Runnable {
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    Thread.sleep(INTERVALO_VERIFICACAO_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                long agora = System.currentTimeMillis();
+                for (Map.Entry<String, Long> entrada : suspensas.entrySet()) {
+                    Consumer<String> acao = retomada;
+                    if (entrada.getValue() <= agora && acao != null) {
+                        acao.accept(entrada.getKey());
+                    }
+                }
+            }
+        }
+    }
+}
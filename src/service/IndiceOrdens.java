@@ -0,0 +1,25 @@
+/*
+ * Índice do ID de cada ordem em repouso para o seu slot no armazenamento do book
+ *
+ * Chaves long para valores int, sem boxing. A chave 0 é reservada para posição vazia.
+ * As implementações não são thread-safe: o BookDeOfertas as acessa sob seu próprio lock.
+ */
+package service;
+
+interface IndiceOrdens {
+    int AUSENTE = -1;
+
+    /**
+     * Retorna o slot da ordem, ou AUSENTE.
+     */
+    int get(long chave);
+
+    void put(long chave, int valor);
+
+    /**
+     * Remove a ordem do índice e retorna o seu slot, ou AUSENTE.
+     */
+    int remove(long chave);
+
+    int size();
+}
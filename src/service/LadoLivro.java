@@ -0,0 +1,101 @@
+/*
+ * Um lado (compra ou venda) do book de uma ação
+ *
+ * Níveis de preço em um array ordenado do pior para o melhor preço, de modo que
+ * o melhor nível fica no fim: consumir o topo do book é O(1) e inserir perto do
+ * topo (o caso comum) desloca poucos elementos. A busca de um preço é binária.
+ */
+package service;
+
+import java.util.Arrays;
+
+final class LadoLivro {
+    private final boolean compra;
+    private NivelPreco[] niveis = new NivelPreco[16];
+    private int tamanho = 0;
+
+    LadoLivro(boolean compra) {
+        this.compra = compra;
+    }
+
+    boolean isVazio() {
+        return tamanho == 0;
+    }
+
+    int getTamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Retorna o melhor nível (maior compra ou menor venda).
+     */
+    NivelPreco melhor() {
+        return niveis[tamanho - 1];
+    }
+
+    /**
+     * Retorna o n-ésimo nível a partir do melhor (0 = melhor).
+     */
+    NivelPreco nivel(int profundidade) {
+        return niveis[tamanho - 1 - profundidade];
+    }
+
+    /**
+     * Retorna o nível do preço, ou null se não existir.
+     */
+    NivelPreco buscar(long precoCentavos) {
+        int indice = indice(precoCentavos);
+        return indice >= 0 ? niveis[indice] : null;
+    }
+
+    /**
+     * Insere um nível novo (o preço não pode existir ainda no lado).
+     */
+    void inserir(NivelPreco nivel) {
+        int posicao = -indice(nivel.precoCentavos) - 1;
+        if (tamanho == niveis.length) {
+            niveis = Arrays.copyOf(niveis, tamanho * 2);
+        }
+        System.arraycopy(niveis, posicao, niveis, posicao + 1, tamanho - posicao);
+        niveis[posicao] = nivel;
+        tamanho++;
+    }
+
+    /**
+     * Remove o nível do preço indicado.
+     */
+    void remover(long precoCentavos) {
+        int indice = indice(precoCentavos);
+        System.arraycopy(niveis, indice + 1, niveis, indice, tamanho - indice - 1);
+        niveis[--tamanho] = null;
+    }
+
+    /**
+     * Busca binária pela chave de ordenação (pior para melhor).
+     * @return Índice do nível, ou -(ponto de inserção) - 1
+     */
+    private int indice(long precoCentavos) {
+        long chave = chave(precoCentavos);
+        int baixo = 0;
+        int alto = tamanho - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            long chaveMeio = chave(niveis[meio].precoCentavos);
+            if (chaveMeio < chave) {
+                baixo = meio + 1;
+            } else if (chaveMeio > chave) {
+                alto = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -(baixo + 1);
+    }
+
+    /**
+     * Na compra o melhor preço é o maior; na venda, o menor.
+     */
+    private long chave(long precoCentavos) {
+        return compra ? precoCentavos : -precoCentavos;
+    }
+}
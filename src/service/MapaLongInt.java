@@ -0,0 +1,101 @@
+/*
+ * Mapa de chaves long para valores int sem boxing
+ *
+ * Endereçamento aberto com sondagem linear e remoção por deslocamento
+ * (sem marcadores de remoção), para localizar o slot de uma ordem pelo ID
+ * sem alocar objetos. A chave 0 é reservada para posição vazia.
+ * Tabelas em arrays primitivos no heap (modo padrão do book); a variante em
+ * memória direta é MapaLongIntForaDoHeap.
+ * Não é thread-safe.
+ */
+package service;
+
+final class MapaLongInt implements IndiceOrdens {
+    private long[] chaves;
+    private int[] valores;
+    private int mascara;
+    private int tamanho = 0;
+
+    MapaLongInt(int capacidadeInicial) {
+        int capacidade = Integer.highestOneBit(Math.max(16, capacidadeInicial) - 1) << 1;
+        chaves = new long[capacidade];
+        valores = new int[capacidade];
+        mascara = capacidade - 1;
+    }
+
+    @Override
+    public int get(long chave) {
+        for (int i = indice(chave); ; i = (i + 1) & mascara) {
+            long atual = chaves[i];
+            if (atual == chave) return valores[i];
+            if (atual == 0) return AUSENTE;
+        }
+    }
+
+    @Override
+    public void put(long chave, int valor) {
+        if ((tamanho + 1) * 2 > chaves.length) {
+            redimensionar();
+        }
+        for (int i = indice(chave); ; i = (i + 1) & mascara) {
+            long atual = chaves[i];
+            if (atual == chave) {
+                valores[i] = valor;
+                return;
+            }
+            if (atual == 0) {
+                chaves[i] = chave;
+                valores[i] = valor;
+                tamanho++;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int remove(long chave) {
+        int i = indice(chave);
+        while (chaves[i] != chave) {
+            if (chaves[i] == 0) return AUSENTE;
+            i = (i + 1) & mascara;
+        }
+        int valor = valores[i];
+        // Desloca para trás as entradas seguintes do mesmo agrupamento
+        int vazio = i;
+        for (int j = (i + 1) & mascara; chaves[j] != 0; j = (j + 1) & mascara) {
+            int ideal = indice(chaves[j]);
+            if (((j - ideal) & mascara) >= ((j - vazio) & mascara)) {
+                chaves[vazio] = chaves[j];
+                valores[vazio] = valores[j];
+                vazio = j;
+            }
+        }
+        chaves[vazio] = 0;
+        tamanho--;
+        return valor;
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    private int indice(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    private void redimensionar() {
+        long[] chavesAntigas = chaves;
+        int[] valoresAntigos = valores;
+        chaves = new long[chavesAntigas.length * 2];
+        valores = new int[chavesAntigas.length * 2];
+        mascara = chaves.length - 1;
+        tamanho = 0;
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (chavesAntigas[i] != 0) {
+                put(chavesAntigas[i], valoresAntigos[i]);
+            }
+        }
+    }
+}
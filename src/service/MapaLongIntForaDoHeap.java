@@ -0,0 +1,108 @@
+/*
+ * Mapa de chaves long para valores int com as tabelas em memória direta
+ *
+ * Mesmo algoritmo de MapaLongInt (sondagem linear, remoção por deslocamento),
+ * com as tabelas em LongBuffer/IntBuffer diretos: no modo fora do heap o índice de
+ * um book muito profundo também não ocupa o heap.
+ * Não é thread-safe.
+ */
+package service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+final class MapaLongIntForaDoHeap implements IndiceOrdens {
+    private LongBuffer chaves;
+    private IntBuffer valores;
+    private int capacidade;
+    private int mascara;
+    private int tamanho = 0;
+
+    MapaLongIntForaDoHeap(int capacidadeInicial) {
+        alocarTabelas(Integer.highestOneBit(Math.max(16, capacidadeInicial) - 1) << 1);
+    }
+
+    @Override
+    public int get(long chave) {
+        for (int i = indice(chave); ; i = (i + 1) & mascara) {
+            long atual = chaves.get(i);
+            if (atual == chave) return valores.get(i);
+            if (atual == 0) return AUSENTE;
+        }
+    }
+
+    @Override
+    public void put(long chave, int valor) {
+        if ((tamanho + 1) * 2 > capacidade) {
+            redimensionar();
+        }
+        for (int i = indice(chave); ; i = (i + 1) & mascara) {
+            long atual = chaves.get(i);
+            if (atual == chave) {
+                valores.put(i, valor);
+                return;
+            }
+            if (atual == 0) {
+                chaves.put(i, chave);
+                valores.put(i, valor);
+                tamanho++;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int remove(long chave) {
+        int i = indice(chave);
+        while (chaves.get(i) != chave) {
+            if (chaves.get(i) == 0) return AUSENTE;
+            i = (i + 1) & mascara;
+        }
+        int valor = valores.get(i);
+        // Desloca para trás as entradas seguintes do mesmo agrupamento
+        int vazio = i;
+        for (int j = (i + 1) & mascara; chaves.get(j) != 0; j = (j + 1) & mascara) {
+            int ideal = indice(chaves.get(j));
+            if (((j - ideal) & mascara) >= ((j - vazio) & mascara)) {
+                chaves.put(vazio, chaves.get(j));
+                valores.put(vazio, valores.get(j));
+                vazio = j;
+            }
+        }
+        chaves.put(vazio, 0);
+        tamanho--;
+        return valor;
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    private int indice(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+
+    private void alocarTabelas(int novaCapacidade) {
+        capacidade = novaCapacidade;
+        mascara = novaCapacidade - 1;
+        chaves = ByteBuffer.allocateDirect(novaCapacidade * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        valores = ByteBuffer.allocateDirect(novaCapacidade * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private void redimensionar() {
+        LongBuffer chavesAntigas = chaves;
+        IntBuffer valoresAntigos = valores;
+        int capacidadeAntiga = capacidade;
+        alocarTabelas(capacidadeAntiga * 2);
+        tamanho = 0;
+        for (int i = 0; i < capacidadeAntiga; i++) {
+            if (chavesAntigas.get(i) != 0) {
+                put(chavesAntigas.get(i), valoresAntigos.get(i));
+            }
+        }
+    }
+}
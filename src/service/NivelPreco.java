@@ -0,0 +1,64 @@
+/*
+ * Nível de preço de um lado do book
+ *
+ * Fila FIFO intrusiva das ordens em repouso no mesmo preço (encadeadas pelos
+ * campos proxima/anterior do pool), com a quantidade total e o número de ordens
+ * mantidos incrementalmente. Instâncias são reutilizadas pelo BookDeOfertas.
+ */
+package service;
+
+final class NivelPreco {
+    long precoCentavos;
+    int primeira = ArmazenamentoOrdens.NENHUMA;
+    int ultima = ArmazenamentoOrdens.NENHUMA;
+    long quantidadeTotal;
+    int numeroOrdens;
+
+    void iniciar(long precoCentavos) {
+        this.precoCentavos = precoCentavos;
+        this.primeira = ArmazenamentoOrdens.NENHUMA;
+        this.ultima = ArmazenamentoOrdens.NENHUMA;
+        this.quantidadeTotal = 0;
+        this.numeroOrdens = 0;
+    }
+
+    /**
+     * Enfileira o slot no fim do nível (prioridade por ordem de chegada).
+     */
+    void adicionar(ArmazenamentoOrdens pool, int slot) {
+        pool.setAnterior(slot, ultima);
+        pool.setProxima(slot, ArmazenamentoOrdens.NENHUMA);
+        if (ultima == ArmazenamentoOrdens.NENHUMA) {
+            primeira = slot;
+        } else {
+            pool.setProxima(ultima, slot);
+        }
+        ultima = slot;
+        quantidadeTotal += pool.getRestante(slot);
+        numeroOrdens++;
+    }
+
+    /**
+     * Retira o slot do nível, em qualquer posição da fila.
+     */
+    void remover(ArmazenamentoOrdens pool, int slot) {
+        int anterior = pool.getAnterior(slot);
+        int proxima = pool.getProxima(slot);
+        if (anterior == ArmazenamentoOrdens.NENHUMA) {
+            primeira = proxima;
+        } else {
+            pool.setProxima(anterior, proxima);
+        }
+        if (proxima == ArmazenamentoOrdens.NENHUMA) {
+            ultima = anterior;
+        } else {
+            pool.setAnterior(proxima, anterior);
+        }
+        quantidadeTotal -= pool.getRestante(slot);
+        numeroOrdens--;
+    }
+
+    boolean isVazio() {
+        return numeroOrdens == 0;
+    }
+}
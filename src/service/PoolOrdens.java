@@ -0,0 +1,105 @@
+/*
+ * Pool de slots de ordens do book no heap
+ *
+ * Guarda as ordens em repouso como colunas de arrays primitivos (um array por campo),
+ * endereçadas por um índice inteiro (handle). Slots liberados voltam para uma lista livre
+ * encadeada pelo próprio campo "proxima", então o ciclo de vida de uma ordem
+ * (entrada, execução, cancelamento) não aloca objetos. Os arrays só crescem quando
+ * o book atinge uma profundidade inédita.
+ */
+package service;
+
+import java.util.Arrays;
+
+final class PoolOrdens implements ArmazenamentoOrdens {
+    private long[] id;
+    private long[] precoCentavos;
+    private long[] timestampNanos;
+    private int[] quantidade;
+    private int[] restante;
+    private int[] investidor;
+    private int[] acao;
+    private int[] proxima;
+    private int[] anterior;
+    private boolean[] compra;
+    private int livre = NENHUMA;
+    private int usados = 0;
+    private int emUso = 0;
+
+    PoolOrdens(int capacidadeInicial) {
+        id = new long[capacidadeInicial];
+        precoCentavos = new long[capacidadeInicial];
+        timestampNanos = new long[capacidadeInicial];
+        quantidade = new int[capacidadeInicial];
+        restante = new int[capacidadeInicial];
+        investidor = new int[capacidadeInicial];
+        acao = new int[capacidadeInicial];
+        proxima = new int[capacidadeInicial];
+        anterior = new int[capacidadeInicial];
+        compra = new boolean[capacidadeInicial];
+    }
+
+    @Override
+    public int alocar() {
+        int slot;
+        if (livre != NENHUMA) {
+            slot = livre;
+            livre = proxima[slot];
+        } else {
+            if (usados == id.length) {
+                crescer();
+            }
+            slot = usados++;
+        }
+        proxima[slot] = NENHUMA;
+        anterior[slot] = NENHUMA;
+        emUso++;
+        return slot;
+    }
+
+    @Override
+    public void liberar(int slot) {
+        id[slot] = 0;
+        proxima[slot] = livre;
+        livre = slot;
+        emUso--;
+    }
+
+    @Override
+    public int getEmUso() { return emUso; }
+
+    @Override public long getId(int slot) { return id[slot]; }
+    @Override public void setId(int slot, long valor) { id[slot] = valor; }
+    @Override public long getPrecoCentavos(int slot) { return precoCentavos[slot]; }
+    @Override public void setPrecoCentavos(int slot, long valor) { precoCentavos[slot] = valor; }
+    @Override public long getTimestampNanos(int slot) { return timestampNanos[slot]; }
+    @Override public void setTimestampNanos(int slot, long valor) { timestampNanos[slot] = valor; }
+    @Override public int getQuantidade(int slot) { return quantidade[slot]; }
+    @Override public void setQuantidade(int slot, int valor) { quantidade[slot] = valor; }
+    @Override public int getRestante(int slot) { return restante[slot]; }
+    @Override public void setRestante(int slot, int valor) { restante[slot] = valor; }
+    @Override public int getInvestidor(int slot) { return investidor[slot]; }
+    @Override public void setInvestidor(int slot, int valor) { investidor[slot] = valor; }
+    @Override public int getAcao(int slot) { return acao[slot]; }
+    @Override public void setAcao(int slot, int valor) { acao[slot] = valor; }
+    @Override public int getProxima(int slot) { return proxima[slot]; }
+    @Override public void setProxima(int slot, int valor) { proxima[slot] = valor; }
+    @Override public int getAnterior(int slot) { return anterior[slot]; }
+    @Override public void setAnterior(int slot, int valor) { anterior[slot] = valor; }
+    @Override public boolean isCompra(int slot) { return compra[slot]; }
+    @Override public void setCompra(int slot, boolean valor) { compra[slot] = valor; }
+
+    private void crescer() {
+        int capacidade = id.length * 2;
+        id = Arrays.copyOf(id, capacidade);
+        precoCentavos = Arrays.copyOf(precoCentavos, capacidade);
+        timestampNanos = Arrays.copyOf(timestampNanos, capacidade);
+        quantidade = Arrays.copyOf(quantidade, capacidade);
+        restante = Arrays.copyOf(restante, capacidade);
+        investidor = Arrays.copyOf(investidor, capacidade);
+        acao = Arrays.copyOf(acao, capacidade);
+        proxima = Arrays.copyOf(proxima, capacidade);
+        anterior = Arrays.copyOf(anterior, capacidade);
+        compra = Arrays.copyOf(compra, capacidade);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Pool de slots de ordens do book fora do heap
+ *
+ * Cada ordem ocupa um registro de tamanho fixo (64 bytes, uma linha de cache) em
+ * blocos de memória direta (ByteBuffer.allocateDirect). O heap guarda apenas o array
+ * de referências aos blocos, então seu uso não cresce com a profundidade do book
+ * e o coletor de lixo não percorre nem copia as ordens.
+ *
+ * O pool cresce bloco a bloco, sem copiar os blocos existentes. A memória direta
+ * disponível é limitada por -XX:MaxDirectMemorySize.
+ *
+ * Layout do registro:
+ *   id(8) precoCentavos(8) timestampNanos(8) quantidade(4) restante(4)
+ *   investidor(4) acao(4) proxima(4) anterior(4) compra(1) [preenchimento]
+ */
+package service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+final class PoolOrdensForaDoHeap implements ArmazenamentoOrdens {
+    private static final int TAMANHO_SLOT = 64;
+    private static final int BITS_SLOTS_POR_BLOCO = 14;
+    private static final int SLOTS_POR_BLOCO = 1 << BITS_SLOTS_POR_BLOCO;
+    private static final int MASCARA_BLOCO = SLOTS_POR_BLOCO - 1;
+
+    private static final int ID = 0;
+    private static final int PRECO = 8;
+    private static final int TIMESTAMP = 16;
+    private static final int QUANTIDADE = 24;
+    private static final int RESTANTE = 28;
+    private static final int INVESTIDOR = 32;
+    private static final int ACAO = 36;
+    private static final int PROXIMA = 40;
+    private static final int ANTERIOR = 44;
+    private static final int COMPRA = 48;
+
+    private ByteBuffer[] blocos = new ByteBuffer[8];
+    private int numeroBlocos = 0;
+    private int livre = NENHUMA;
+    private int usados = 0;
+    private int emUso = 0;
+
+    @Override
+    public int alocar() {
+        int slot;
+        if (livre != NENHUMA) {
+            slot = livre;
+            livre = getProxima(slot);
+        } else {
+            if (usados == numeroBlocos * SLOTS_POR_BLOCO) {
+                novoBloco();
+            }
+            slot = usados++;
+        }
+        setProxima(slot, NENHUMA);
+        setAnterior(slot, NENHUMA);
+        emUso++;
+        return slot;
+    }
+
+    @Override
+    public void liberar(int slot) {
+        setId(slot, 0);
+        setProxima(slot, livre);
+        livre = slot;
+        emUso--;
+    }
+
+    @Override
+    public int getEmUso() { return emUso; }
+
+    @Override public long getId(int slot) { return bloco(slot).getLong(posicao(slot) + ID); }
+    @Override public void setId(int slot, long valor) { bloco(slot).putLong(posicao(slot) + ID, valor); }
+    @Override public long getPrecoCentavos(int slot) { return bloco(slot).getLong(posicao(slot) + PRECO); }
+    @Override public void setPrecoCentavos(int slot, long valor) { bloco(slot).putLong(posicao(slot) + PRECO, valor); }
+    @Override public long getTimestampNanos(int slot) { return bloco(slot).getLong(posicao(slot) + TIMESTAMP); }
+    @Override public void setTimestampNanos(int slot, long valor) { bloco(slot).putLong(posicao(slot) + TIMESTAMP, valor); }
+    @Override public int getQuantidade(int slot) { return bloco(slot).getInt(posicao(slot) + QUANTIDADE); }
+    @Override public void setQuantidade(int slot, int valor) { bloco(slot).putInt(posicao(slot) + QUANTIDADE, valor); }
+    @Override public int getRestante(int slot) { return bloco(slot).getInt(posicao(slot) + RESTANTE); }
+    @Override public void setRestante(int slot, int valor) { bloco(slot).putInt(posicao(slot) + RESTANTE, valor); }
+    @Override public int getInvestidor(int slot) { return bloco(slot).getInt(posicao(slot) + INVESTIDOR); }
+    @Override public void setInvestidor(int slot, int valor) { bloco(slot).putInt(posicao(slot) + INVESTIDOR, valor); }
+    @Override public int getAcao(int slot) { return bloco(slot).getInt(posicao(slot) + ACAO); }
+    @Override public void setAcao(int slot, int valor) { bloco(slot).putInt(posicao(slot) + ACAO, valor); }
+    @Override public int getProxima(int slot) { return bloco(slot).getInt(posicao(slot) + PROXIMA); }
+    @Override public void setProxima(int slot, int valor) { bloco(slot).putInt(posicao(slot) + PROXIMA, valor); }
+    @Override public int getAnterior(int slot) { return bloco(slot).getInt(posicao(slot) + ANTERIOR); }
+    @Override public void setAnterior(int slot, int valor) { bloco(slot).putInt(posicao(slot) + ANTERIOR, valor); }
+    @Override public boolean isCompra(int slot) { return bloco(slot).get(posicao(slot) + COMPRA) != 0; }
+    @Override public void setCompra(int slot, boolean valor) { bloco(slot).put(posicao(slot) + COMPRA, (byte) (valor ? 1 : 0)); }
+
+    private ByteBuffer bloco(int slot) {
+        return blocos[slot >>> BITS_SLOTS_POR_BLOCO];
+    }
+
+    private static int posicao(int slot) {
+        return (slot & MASCARA_BLOCO) * TAMANHO_SLOT;
+    }
+
+    private void novoBloco() {
+        if (numeroBlocos == blocos.length) {
+            blocos = Arrays.copyOf(blocos, numeroBlocos * 2);
+        }
+        blocos[numeroBlocos++] = ByteBuffer.allocateDirect(SLOTS_POR_BLOCO * TAMANHO_SLOT).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Replicador do servidor primário
+ *
+ * Atribui números de sequência às alterações de estado da bolsa e as envia
+ * para o servidor standby via RMI.
+ *
+ * Os eventos são publicados (recebem a sequência) dentro da seção crítica do controller
+ * que os aplica; a espera pela confirmação acontece depois, fora dela.
+ *
+ * Modos de confirmação:
+ * - SINCRONO: quem publica aguarda a réplica confirmar o seu evento (maior latência, sem
+ *   perda no failover enquanto a réplica responde). Quem chega enquanto um lote está em
+ *   trânsito entra no próximo: chamadas concorrentes compartilham a ida e volta.
+ * - ASSINCRONO: eventos são enviados em lote por uma thread dedicada (menor latência,
+ *   eventos ainda não confirmados podem ser perdidos no failover)
+ *
+ * As chamadas à réplica têm prazo de conexão e de resposta (FabricaSocketsComPrazo).
+ * Se a réplica falhar ou não responder no prazo, o primário continua operando e passa
+ * a replicar como ASSINCRONO: a ordem já aplicada no book é confirmada ao cliente, os
+ * eventos ficam pendentes e são reenviados pela thread de envio. A confirmação síncrona
+ * volta assim que a réplica confirmar de novo. Nesse intervalo um failover pode perder
+ * os eventos não confirmados, como no modo assíncrono.
+ *
+ * Se a réplica responder que já assumiu como primária (ReplicaPromovidaException), este
+ * servidor é rebaixado: deixa de replicar, o controller passa a recusar ordens e a ação
+ * informada em setAoRebaixar é executada (ex: parar a simulação de preços).
+ */
+package service;
+
+import model.EventoReplicacao;
+import model.Ordem;
+import rmi.ReplicaPromovidaException;
+import rmi.ReplicaRemote;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import rmi.FabricaSocketsComPrazo;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import interfaces.PrecoAcaoListener;
+
+public class ReplicadorPrimario implements PrecoAcaoListener {
+    public static final String NOME_REPLICA = "BolsaValoresReplica";
+    public static final int PRAZO_CONEXAO_MS = 1000;
+    public static final int PRAZO_RESPOSTA_MS = 2000;
+    // Limita o lote para que a réplica o aplique bem dentro do prazo de resposta
+    private static final int LOTE_MAXIMO = 10_000;
+
+    /**
+     * Enumeração para os modos de confirmação da réplica.
+     */
+    public enum ModoConfirmacao {
+        SINCRONO, ASSINCRONO
+    }
+
+    private final String hostReplica;
+    private final int portaReplica;
+    private final ModoConfirmacao modo;
+    private final long intervaloSinalVidaMs;
+    // Eventos publicados e ainda não confirmados pela réplica, em ordem de sequência
+    private final Deque<EventoReplicacao> pendentes = new ArrayDeque<>();
+    private final Object envioLock = new Object();
+    private long proximaSequencia = 1;
+    private volatile long sequenciaConfirmada = 0;
+    private ReplicaRemote replica;
+    // Lido fora do envioLock: com a réplica indisponível, quem publica não aguarda
+    private volatile boolean replicaDisponivel = true;
+    private volatile boolean rebaixado = false;
+    private Runnable aoRebaixar;
+
+    /**
+     * Cria o replicador apontando para a réplica standby.
+     * @param hostReplica Endereço do registro RMI da réplica
+     * @param portaReplica Porta do registro RMI da réplica
+     * @param modo Modo de confirmação
+     * @param intervaloSinalVidaMs Intervalo entre sinais de vida quando não há eventos
+     */
+    public ReplicadorPrimario(String hostReplica, int portaReplica, ModoConfirmacao modo, long intervaloSinalVidaMs) {
+        this.hostReplica = hostReplica;
+        this.portaReplica = portaReplica;
+        this.modo = modo;
+        this.intervaloSinalVidaMs = intervaloSinalVidaMs;
+    }
+
+    /**
+     * Inicia a thread de envio em lote e de sinais de vida.
+     */
+    public void iniciar() {
+        Thread envio = new Thread(new EnviadorEventos());
+        envio.setDaemon(true);
+        envio.start();
+    }
+
+    /**
+     * Publica uma nova ordem. Deve ser chamado na mesma seção crítica que aplica a ordem no book,
+     * para que a sequência reflita a ordem de aplicação.
+     * @return Sequência do evento, para aguardarConfirmacao fora da seção crítica
+     */
+    public long publicarOrdem(Ordem ordem) {
+        synchronized (pendentes) {
+            return enfileirar(EventoReplicacao.ordem(proximaSequencia, ordem));
+        }
+    }
+
+    /**
+     * Publica o cancelamento de uma ordem.
+     * @return Sequência do evento
+     */
+    public long publicarCancelamento(long ordemId) {
+        synchronized (pendentes) {
+            return enfileirar(EventoReplicacao.cancelamento(proximaSequencia, ordemId));
+        }
+    }
+
+    /**
+     * Publica a abertura do leilão de uma ação.
+     * @return Sequência do evento
+     */
+    public long publicarInicioLeilao(String simboloAcao) {
+        synchronized (pendentes) {
+            return enfileirar(EventoReplicacao.inicioLeilao(proximaSequencia, simboloAcao));
+        }
+    }
+
+    /**
+     * Publica o encerramento do leilão de uma ação.
+     * @return Sequência do evento
+     */
+    public long publicarFimLeilao(String simboloAcao) {
+        synchronized (pendentes) {
+            return enfileirar(EventoReplicacao.fimLeilao(proximaSequencia, simboloAcao));
+        }
+    }
+
+    /**
+     * Publica as atualizações de preço recebidas do serviço. Não aguarda a réplica: o
+     * preço não tem quem o confirme, e a próxima ordem confirmada cobre a sua sequência.
+     */
+    @Override
+    public void atualizacaoPreco(String simboloAcao, double precoAntigo, double novoPreco) {
+        synchronized (pendentes) {
+            enfileirar(EventoReplicacao.preco(proximaSequencia, simboloAcao, novoPreco));
+        }
+    }
+
+    /**
+     * No modo síncrono, aguarda a réplica confirmar o evento com a sequência informada.
+     * Deve ser chamado fora da seção crítica do controller, para que outros eventos sejam
+     * publicados e sigam no mesmo lote. Com a réplica indisponível, retorna sem aguardar
+     * (replicação assíncrona até ela voltar). No modo assíncrono, apenas retorna: a
+     * thread de envio cuida do restante.
+     * @return false se este servidor foi rebaixado (a réplica assumiu como primária)
+     */
+    public boolean aguardarConfirmacao(long sequencia) {
+        if (modo == ModoConfirmacao.SINCRONO) {
+            while (sequenciaConfirmada < sequencia && replicaDisponivel && !rebaixado) {
+                long antes = sequenciaConfirmada;
+                // Réplica respondeu sem avançar (ex: lacuna na sequência): não insiste
+                if (enviarPendentes(sequencia) && sequenciaConfirmada == antes) break;
+            }
+        }
+        return !rebaixado;
+    }
+
+    /**
+     * Indica se a réplica assumiu como primária e este servidor deixou de operar.
+     */
+    public boolean isRebaixado() {
+        return rebaixado;
+    }
+
+    /**
+     * Define a ação executada, em uma thread própria, quando este servidor é rebaixado.
+     */
+    public void setAoRebaixar(Runnable aoRebaixar) {
+        this.aoRebaixar = aoRebaixar;
+    }
+
+    /**
+     * Retorna a última sequência confirmada pela réplica.
+     */
+    public long getSequenciaConfirmada() {
+        return sequenciaConfirmada;
+    }
+
+    /**
+     * Envia à réplica, na thread atual, os eventos ainda não confirmados
+     * (usado no encerramento, depois que as entradas de ordens foram fechadas).
+     * @return true se não restou evento sem confirmação
+     */
+    public boolean descarregar() {
+        while (true) {
+            long antes = sequenciaConfirmada;
+            if (!enviarPendentes()) return false;
+            synchronized (pendentes) {
+                if (pendentes.isEmpty()) return true;
+            }
+            // Réplica não avançou (ex: lacuna na sequência): não insiste
+            if (sequenciaConfirmada == antes) return false;
+        }
+    }
+
+    /**
+     * Atribui a próxima sequência ao evento e o enfileira. Chamado com o lock de pendentes.
+     */
+    private long enfileirar(EventoReplicacao evento) {
+        proximaSequencia++;
+        pendentes.addLast(evento);
+        pendentes.notifyAll();
+        return evento.getSequencia();
+    }
+
+    private boolean enviarPendentes() {
+        return enviarPendentes(Long.MAX_VALUE);
+    }
+
+    /**
+     * Envia em um único lote os eventos pendentes (até LOTE_MAXIMO) e descarta os confirmados.
+     * @param ate Sequência que precisa ser confirmada; se um lote de outra thread já a
+     *            confirmou enquanto esta aguardava a vez, não envia
+     * @return true se a réplica respondeu
+     */
+    private boolean enviarPendentes(long ate) {
+        synchronized (envioLock) {
+            if (sequenciaConfirmada >= ate || rebaixado) return !rebaixado;
+            List<EventoReplicacao> lote;
+            synchronized (pendentes) {
+                if (pendentes.isEmpty()) return true;
+                lote = new ArrayList<>(Math.min(pendentes.size(), LOTE_MAXIMO));
+                for (EventoReplicacao evento : pendentes) {
+                    if (lote.size() == LOTE_MAXIMO) break;
+                    lote.add(evento);
+                }
+            }
+            try {
+                long confirmada = obterReplica().aplicarEventos(lote);
+                confirmar(confirmada);
+                return true;
+            } catch (ReplicaPromovidaException e) {
+                rebaixar(e);
+                return false;
+            } catch (RemoteException | NotBoundException e) {
+                falhaReplica(e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Envia um sinal de vida para a réplica não assumir por engano.
+     */
+    private void enviarSinalVida() {
+        synchronized (envioLock) {
+            try {
+                obterReplica().sinalVida(sequenciaConfirmada);
+            } catch (ReplicaPromovidaException e) {
+                rebaixar(e);
+            } catch (RemoteException | NotBoundException e) {
+                falhaReplica(e);
+            }
+        }
+    }
+
+    private void confirmar(long confirmada) {
+        synchronized (pendentes) {
+            while (!pendentes.isEmpty() && pendentes.peekFirst().getSequencia() <= confirmada) {
+                pendentes.pollFirst();
+            }
+            sequenciaConfirmada = confirmada;
+        }
+        if (!replicaDisponivel) {
+            System.out.println("[REPLICAÇÃO] Réplica disponível novamente (confirmado até #" + confirmada + ")");
+            replicaDisponivel = true;
+        }
+    }
+
+    private void falhaReplica(Exception e) {
+        replica = null;
+        if (replicaDisponivel) {
+            System.err.println("[REPLICAÇÃO] Réplica indisponível: " + e.getMessage() +
+                (modo == ModoConfirmacao.SINCRONO ? " (replicação assíncrona até a réplica voltar)" : ""));
+            replicaDisponivel = false;
+        }
+    }
+
+    /**
+     * A réplica assumiu: há outro primário aceitando ordens. Chamado com o envioLock.
+     */
+    private void rebaixar(ReplicaPromovidaException e) {
+        if (rebaixado) return;
+        rebaixado = true;
+        System.err.println("[REPLICAÇÃO] " + e.getMessage() + ". Este servidor deixa de aceitar ordens.");
+        synchronized (pendentes) {
+            pendentes.notifyAll();
+        }
+        if (aoRebaixar != null) {
+            Thread rebaixamento = new Thread(aoRebaixar, "rebaixamento");
+            rebaixamento.setDaemon(true);
+            rebaixamento.start();
+        }
+    }
+
+    private ReplicaRemote obterReplica() throws RemoteException, NotBoundException {
+        if (replica == null) {
+            replica = (ReplicaRemote) LocateRegistry.getRegistry(hostReplica, portaReplica,
+                new FabricaSocketsComPrazo(PRAZO_CONEXAO_MS, PRAZO_RESPOSTA_MS)).lookup(NOME_REPLICA);
+        }
+        return replica;
+    }
+
+    /**
+     * Thread interna que envia os eventos pendentes em lote e, sem eventos, mantém o sinal de vida.
+     */
+    private class EnviadorEventos implements Runnable {
+        @Override
+        public void run() {
+            while (!rebaixado) {
+                try {
+                    synchronized (pendentes) {
+                        if (pendentes.isEmpty() && !rebaixado) {
+                            pendentes.wait(intervaloSinalVidaMs);
+                        }
+                    }
+                    boolean vazio;
+                    synchronized (pendentes) {
+                        vazio = pendentes.isEmpty();
+                    }
+                    if (vazio) {
+                        enviarSinalVida();
+                    } else if (!enviarPendentes()) {
+                        // Réplica fora do ar: evita laço apertado de reconexão
+                        Thread.sleep(intervaloSinalVidaMs);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+}